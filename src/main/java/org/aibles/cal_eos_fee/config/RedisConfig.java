@@ -2,6 +2,8 @@ package org.aibles.cal_eos_fee.config;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,6 +11,7 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -40,8 +43,22 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Hot-path counters and epoch-millis timestamps, stored as plain numeric strings rather than typed JSON.
+     */
     @Bean
-    public CircuitBreaker redisCircuitBreaker() {
+    public RedisTemplate<String, Long> longRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, Long> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new GenericToStringSerializer<>(Long.class));
+
+        return template;
+    }
+
+    @Bean
+    public CircuitBreaker redisCircuitBreaker(MeterRegistry meterRegistry) {
         CircuitBreakerConfig config = CircuitBreakerConfig.custom()
                 .failureRateThreshold(50.0f)
                 .waitDurationInOpenState(Duration.ofSeconds(30))
@@ -50,6 +67,13 @@ public class RedisConfig {
                 .permittedNumberOfCallsInHalfOpenState(3)
                 .build();
         
-        return CircuitBreaker.of("redisCircuitBreaker", config);
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("redisCircuitBreaker", config);
+        // One series per state, 1 for the current one
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("redis.circuit_breaker.state", circuitBreaker, cb -> cb.getState() == state ? 1 : 0)
+                    .tag("state", state.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        return circuitBreaker;
     }
 }
\ No newline at end of file
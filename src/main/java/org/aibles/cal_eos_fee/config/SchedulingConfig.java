@@ -0,0 +1,54 @@
+package org.aibles.cal_eos_fee.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Runs {@code @Scheduled} work on a pool of its own. Left alone, Spring picks up the STOMP broker's
+ * {@code messageBrokerTaskScheduler}, and a blocking get_info refresh against a slow node would
+ * hold up broker heartbeats and relaying. With {@code spring.threads.virtual.enabled} each run gets
+ * a virtual thread instead.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer, DisposableBean {
+
+    private final TaskScheduler taskScheduler;
+
+    public SchedulingConfig(@Value("${scheduling.pool-size:4}") int poolSize,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix("scheduled-");
+            this.taskScheduler = scheduler;
+        } else {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setPoolSize(poolSize);
+            scheduler.setThreadNamePrefix("scheduled-");
+            scheduler.initialize();
+            this.taskScheduler = scheduler;
+        }
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.setTaskScheduler(taskScheduler);
+    }
+
+    @Override
+    public void destroy() {
+        if (taskScheduler instanceof ThreadPoolTaskScheduler scheduler) {
+            scheduler.shutdown();
+        } else if (taskScheduler instanceof SimpleAsyncTaskScheduler scheduler) {
+            scheduler.close();
+        }
+    }
+}
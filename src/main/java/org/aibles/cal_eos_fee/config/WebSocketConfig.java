@@ -1,18 +1,28 @@
 package org.aibles.cal_eos_fee.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aibles.cal_eos_fee.websocket.ChannelMetricsInterceptor;
+import org.aibles.cal_eos_fee.websocket.SessionPayloadFormats;
 import org.aibles.cal_eos_fee.websocket.SessionPrincipalHandler;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import java.util.List;
+
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final SessionPrincipalHandler sessionPrincipalHandler;
+    private final MeterRegistry meterRegistry;
+    private final SessionPayloadFormats sessionPayloadFormats;
     
     @Value("${activemq.broker.host}")
     private String activeMqHost;
@@ -26,23 +36,65 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${activemq.broker.password}")
     private String activeMqPassword;
 
-    public WebSocketConfig(SessionPrincipalHandler sessionPrincipalHandler) {
+    @Value("${websocket.executor.mode:platform}")
+    private String executorMode;
+
+    @Value("${websocket.broker.mode:relay}")
+    private String brokerMode;
+
+    public WebSocketConfig(SessionPrincipalHandler sessionPrincipalHandler, MeterRegistry meterRegistry,
+                           SessionPayloadFormats sessionPayloadFormats) {
         this.sessionPrincipalHandler = sessionPrincipalHandler;
+        this.meterRegistry = meterRegistry;
+        this.sessionPayloadFormats = sessionPayloadFormats;
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable ActiveMQ STOMP broker relay for multi-instance support
-        config.enableStompBrokerRelay("/topic", "/queue")
-                .setRelayHost(activeMqHost)
-                .setRelayPort(activeMqPort)
-                .setClientLogin(activeMqUsername)
-                .setClientPasscode(activeMqPassword)
-                .setSystemLogin(activeMqUsername)
-                .setSystemPasscode(activeMqPassword);
+        if ("simple".equalsIgnoreCase(brokerMode)) {
+            // In-memory broker for a single instance, e.g. local load tests without ActiveMQ
+            config.enableSimpleBroker("/topic", "/queue");
+        } else {
+            // Enable ActiveMQ STOMP broker relay for multi-instance support
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(activeMqHost)
+                    .setRelayPort(activeMqPort)
+                    .setClientLogin(activeMqUsername)
+                    .setClientPasscode(activeMqPassword)
+                    .setSystemLogin(activeMqUsername)
+                    .setSystemPasscode(activeMqPassword);
+        }
         
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+
+        if (isVirtualThreadMode()) {
+            // Virtual threads give no ordering of their own, so keep replies in order per session
+            config.setPreservePublishOrder(true);
+        }
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelMetricsInterceptor(meterRegistry, "inbound"), sessionPayloadFormats);
+        if (isVirtualThreadMode()) {
+            registration.executor(new VirtualThreadTaskExecutor("ws-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelMetricsInterceptor(meterRegistry, "outbound"));
+        if (isVirtualThreadMode()) {
+            registration.executor(new VirtualThreadTaskExecutor("ws-outbound-"));
+        }
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // CBOR and MessagePack for sessions that ask for them; the default converters, JSON included, follow
+        messageConverters.addAll(sessionPayloadFormats.messageConverters());
+        return true;
     }
 
     @Override
@@ -50,5 +102,13 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setHandshakeHandler(sessionPrincipalHandler)
                 .setAllowedOriginPatterns("*");
+
+        if (isVirtualThreadMode()) {
+            registry.setPreserveReceiveOrder(true);
+        }
+    }
+
+    private boolean isVirtualThreadMode() {
+        return "virtual".equalsIgnoreCase(executorMode);
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package org.aibles.cal_eos_fee.dto.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CalculateFeeBatchRequest {
+
+    private List<TransferData> transfers;
+
+    // Push each item's result as soon as it completes instead of one aggregated reply
+    private boolean stream;
+}
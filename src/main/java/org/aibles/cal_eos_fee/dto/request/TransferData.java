@@ -24,4 +24,13 @@ public class TransferData {
     private Double quantity;
     
     private String memo;
+
+    // Return action traces and RAM deltas instead of only the fee fields
+    private boolean fullTrace;
+
+    // Answer from the local fee model when it is confident, skipping compute_transaction
+    private boolean estimate;
+
+    // Reply at once from the latest result for this transfer, then push a fresh one if it differs
+    private boolean allowStale;
 }
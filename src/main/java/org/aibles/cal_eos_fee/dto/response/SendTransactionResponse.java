@@ -1,6 +1,7 @@
 package org.aibles.cal_eos_fee.dto.response;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonView;
 import lombok.Data;
 import java.util.List;
 
@@ -11,6 +12,17 @@ public class SendTransactionResponse {
     private String transactionId;
     
     private Processed processed;
+
+    /**
+     * Deserialization views: reading with {@link Fee} skips the trace trees the fee pipeline never looks at.
+     */
+    public interface Views {
+        interface Fee {
+        }
+
+        interface FullTrace extends Fee {
+        }
+    }
     
     @Data
     public static class Processed {
@@ -37,12 +49,15 @@ public class SendTransactionResponse {
         private boolean scheduled;
         
         @JsonProperty("action_traces")
+        @JsonView(Views.FullTrace.class)
         private List<Object> actionTraces;
         
         @JsonProperty("account_ram_delta")
+        @JsonView(Views.FullTrace.class)
         private Object accountRamDelta;
 
         @JsonProperty("error_code")
+        @JsonView(Views.FullTrace.class)
         private Object errorCode;
     }
     
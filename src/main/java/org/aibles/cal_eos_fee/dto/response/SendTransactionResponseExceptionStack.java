@@ -1,11 +1,13 @@
 package org.aibles.cal_eos_fee.dto.response;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonView;
 import lombok.Data;
 
 @Data
 public class SendTransactionResponseExceptionStack {
     
+    @JsonView(SendTransactionResponse.Views.FullTrace.class)
     private Context context;
     private String format;
     private Object data;
@@ -0,0 +1,27 @@
+package org.aibles.cal_eos_fee.dto.websocket;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResult {
+    @JsonProperty("index")
+    private int index;
+
+    @JsonProperty("success")
+    private boolean success;
+
+    @JsonProperty("data")
+    private Object data;
+
+    @JsonProperty("error")
+    private String error;
+
+    public static BatchItemResult of(int index, WebSocketResponse response) {
+        return new BatchItemResult(index, response.isSuccess(), response.getData(), response.getError());
+    }
+}
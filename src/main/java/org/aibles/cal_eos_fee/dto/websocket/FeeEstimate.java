@@ -0,0 +1,36 @@
+package org.aibles.cal_eos_fee.dto.websocket;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fee answer for requests with {@code "estimate": true}: predicted by the local model, or read
+ * from a compute_transaction receipt when the model was not confident enough.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FeeEstimate {
+
+    public static final String SOURCE_MODEL = "model";
+    public static final String SOURCE_NODE = "node";
+
+    @JsonProperty("cpuUsageUs")
+    private long cpuUsageUs;
+
+    @JsonProperty("netUsageWords")
+    private long netUsageWords;
+
+    // Half-width of the 95% interval around cpuUsageUs; 0 for node results
+    @JsonProperty("confidenceUs")
+    private long confidenceUs;
+
+    // Receipts the estimate was learned from; 0 for node results
+    @JsonProperty("samples")
+    private long samples;
+
+    @JsonProperty("source")
+    private String source;
+}
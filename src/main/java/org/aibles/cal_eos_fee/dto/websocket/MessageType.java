@@ -2,6 +2,7 @@ package org.aibles.cal_eos_fee.dto.websocket;
 
 public enum MessageType {
     CALCULATE_FEE,
+    CALCULATE_FEE_BATCH,
     PING,
     ERROR,
     SUCCESS
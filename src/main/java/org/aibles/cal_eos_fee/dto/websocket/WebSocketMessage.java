@@ -13,4 +13,8 @@ public class WebSocketMessage {
     
     @JsonProperty("requestId")
     private String requestId;
+
+    // Client hint for how long an answer is still useful; capped by the server
+    @JsonProperty("timeoutMs")
+    private Long timeoutMs;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package org.aibles.cal_eos_fee.dto.websocket;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -23,6 +24,15 @@ public class WebSocketResponse {
     
     @JsonProperty("error")
     private String error;
+
+    // Only on replies served from an earlier result: its age; a fresh reply may follow
+    @JsonProperty("staleAgeMs")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long staleAgeMs;
+
+    public WebSocketResponse(MessageType type, Object data, String requestId, boolean success, String error) {
+        this(type, data, requestId, success, error, null);
+    }
     
     public static WebSocketResponse success(MessageType type, Object data, String requestId) {
         return new WebSocketResponse(type, data, requestId, true, null);
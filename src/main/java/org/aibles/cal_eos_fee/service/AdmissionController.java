@@ -0,0 +1,222 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Sheds fee calculations while the server is saturated, so clients get a fast "busy" answer with a
+ * retry-after instead of queueing behind everyone else.
+ * <p>
+ * A request is turned away when its session already has {@code session.max-in-flight} requests
+ * running, when more than {@code max-queued} tasks wait on the inbound channel and the
+ * {@link FeeLane} together, or when the calculations in flight reach the limit. The limit is
+ * {@code max-in-flight} while the best EOS node answers within {@code target-latency-ms} and
+ * shrinks in proportion as it slows down, never below {@code min-in-flight} so latency keeps being
+ * measured.
+ * <p>
+ * A request counts once against its session but with its weight, the upstream calls it can have
+ * running at once, against the in-flight limit; a request heavier than the limit is only admitted
+ * while nothing else is in flight. A session's requests in flight are its message rate times the
+ * reply latency, so {@code session.max-in-flight} has to cover the stalls a busy session should
+ * ride out, such as the first Redis and EOS calls after startup.
+ * <p>
+ * Admitted requests must be {@link #release released} with the same weight once answered.
+ * Outcomes are counted in {@code websocket.admission.requests}, tagged by outcome; a request the
+ * {@link FeeLane} turns away after admission is counted both as admitted and as
+ * {@code shed_lane_full}.
+ */
+@Component
+@Slf4j
+public class AdmissionController {
+
+    private static final String ADMITTED = "admitted";
+
+    private final boolean enabled;
+    private final int maxQueued;
+    private final int maxInFlight;
+    private final int minInFlight;
+    private final int sessionMaxInFlight;
+    private final double targetLatencyMillis;
+    private final long retryAfterMillis;
+    private final IntSupplier queueDepth;
+    private final DoubleSupplier upstreamLatencyMillis;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentHashMap<String, Integer> sessionInFlight = new ConcurrentHashMap<>();
+
+    private final Counter admitted;
+    private final Map<AdmissionDecision.Reason, Counter> shed = new EnumMap<>(AdmissionDecision.Reason.class);
+
+    @Autowired
+    public AdmissionController(MeterRegistry meterRegistry,
+                               EOSNodePool nodePool,
+                               FeeLane feeLane,
+                               @Value("${websocket.admission.enabled:true}") boolean enabled,
+                               @Value("${websocket.admission.max-queued:1000}") int maxQueued,
+                               @Value("${websocket.admission.max-in-flight:2000}") int maxInFlight,
+                               @Value("${websocket.admission.min-in-flight:16}") int minInFlight,
+                               @Value("${websocket.admission.session.max-in-flight:32}") int sessionMaxInFlight,
+                               @Value("${websocket.admission.target-latency-ms:500}") long targetLatencyMillis,
+                               @Value("${websocket.admission.retry-after-ms:1000}") long retryAfterMillis) {
+        this(meterRegistry, enabled, maxQueued, maxInFlight, minInFlight, sessionMaxInFlight, targetLatencyMillis,
+                retryAfterMillis, queueDepth(new InboundQueueDepth(meterRegistry), feeLane),
+                () -> nodePool.select().getEwmaLatencyMicros() / 1000);
+    }
+
+    AdmissionController(MeterRegistry meterRegistry, boolean enabled, int maxQueued, int maxInFlight, int minInFlight,
+                        int sessionMaxInFlight, long targetLatencyMillis, long retryAfterMillis,
+                        IntSupplier queueDepth, DoubleSupplier upstreamLatencyMillis) {
+        this.enabled = enabled;
+        this.maxQueued = maxQueued;
+        this.maxInFlight = maxInFlight;
+        this.minInFlight = Math.min(minInFlight, maxInFlight);
+        this.sessionMaxInFlight = sessionMaxInFlight;
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.retryAfterMillis = retryAfterMillis;
+        this.queueDepth = queueDepth;
+        this.upstreamLatencyMillis = upstreamLatencyMillis;
+
+        this.admitted = Counter.builder("websocket.admission.requests").tag("outcome", ADMITTED)
+                .register(meterRegistry);
+        for (AdmissionDecision.Reason reason : AdmissionDecision.Reason.values()) {
+            shed.put(reason, Counter.builder("websocket.admission.requests")
+                    .tag("outcome", "shed_" + reason.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("websocket.admission.in_flight", inFlight, AtomicInteger::get)
+                .description("Admitted fee calculations not yet answered")
+                .register(meterRegistry);
+    }
+
+    public AdmissionDecision tryAdmit(String sessionId) {
+        return tryAdmit(sessionId, 1);
+    }
+
+    public AdmissionDecision tryAdmit(String sessionId, int weight) {
+        if (!enabled) {
+            return AdmissionDecision.ADMITTED;
+        }
+
+        if (!acquireSession(sessionId)) {
+            return shed(AdmissionDecision.Reason.SESSION_IN_FLIGHT, retryAfterMillis, sessionId);
+        }
+
+        if (queueDepth.getAsInt() > maxQueued) {
+            releaseSession(sessionId);
+            return shed(AdmissionDecision.Reason.QUEUE_DEPTH, retryAfterMillis, sessionId);
+        }
+
+        double latency = upstreamLatencyMillis.getAsDouble();
+        int limit = inFlightLimit(latency);
+        int before = inFlight.getAndAdd(weight);
+        if (before + weight > limit && before > 0) {
+            inFlight.addAndGet(-weight);
+            releaseSession(sessionId);
+            if (limit < maxInFlight) {
+                long retryAfter = Math.max(retryAfterMillis, (long) latency);
+                return shed(AdmissionDecision.Reason.UPSTREAM_LATENCY, retryAfter, sessionId);
+            }
+            return shed(AdmissionDecision.Reason.IN_FLIGHT, retryAfterMillis, sessionId);
+        }
+
+        admitted.increment();
+        return AdmissionDecision.ADMITTED;
+    }
+
+    public void release(String sessionId) {
+        release(sessionId, 1);
+    }
+
+    public void release(String sessionId, int weight) {
+        if (!enabled) {
+            return;
+        }
+        inFlight.addAndGet(-weight);
+        releaseSession(sessionId);
+    }
+
+    /**
+     * Sheds a request that was admitted but found the {@link FeeLane} full; it must still be
+     * {@link #release released}.
+     */
+    public AdmissionDecision shedFullLane(String sessionId) {
+        return shed(AdmissionDecision.Reason.LANE_FULL, retryAfterMillis, sessionId);
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    int inFlightLimit(double latencyMillis) {
+        if (latencyMillis <= targetLatencyMillis) {
+            return maxInFlight;
+        }
+        return Math.max(minInFlight, (int) (maxInFlight * targetLatencyMillis / latencyMillis));
+    }
+
+    private boolean acquireSession(String sessionId) {
+        boolean[] acquired = new boolean[1];
+        sessionInFlight.compute(sessionId, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= sessionMaxInFlight) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseSession(String sessionId) {
+        sessionInFlight.computeIfPresent(sessionId, (key, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private AdmissionDecision shed(AdmissionDecision.Reason reason, long retryAfter, String sessionId) {
+        shed.get(reason).increment();
+        log.debug("Shedding request from session {}: {}", sessionId, reason);
+        return new AdmissionDecision(false, reason, retryAfter);
+    }
+
+    private static IntSupplier queueDepth(IntSupplier inbound, FeeLane feeLane) {
+        return () -> inbound.getAsInt() + feeLane.queued();
+    }
+
+    /**
+     * Reads {@code websocket.channel.queued} for the inbound channel, which is registered once the
+     * STOMP channels are configured.
+     */
+    private static final class InboundQueueDepth implements IntSupplier {
+
+        private final MeterRegistry meterRegistry;
+        private volatile Gauge gauge;
+
+        InboundQueueDepth(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public int getAsInt() {
+            Gauge current = gauge;
+            if (current == null) {
+                current = meterRegistry.find("websocket.channel.queued").tag("channel", "inbound").gauge();
+                if (current == null) {
+                    return 0;
+                }
+                gauge = current;
+            }
+            return (int) current.value();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.aibles.cal_eos_fee.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.aibles.cal_eos_fee.dto.websocket.MessageType;
+import org.aibles.cal_eos_fee.dto.websocket.WebSocketResponse;
+
+import java.util.Map;
+
+/**
+ * Outcome of an admission check; {@code reason} is null when admitted.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AdmissionDecision {
+
+    public static final AdmissionDecision ADMITTED = new AdmissionDecision(true, null, 0);
+
+    public enum Reason {
+        SESSION_IN_FLIGHT, IN_FLIGHT, QUEUE_DEPTH, UPSTREAM_LATENCY,
+        // Admitted, then turned away by a full FeeLane
+        LANE_FULL
+    }
+
+    private final boolean admitted;
+    private final Reason reason;
+    private final long retryAfterMillis;
+
+    /**
+     * Error reply for a shed request: unlike a rate limit, the server is busy rather than the client
+     * over its quota.
+     */
+    public WebSocketResponse toErrorResponse(String requestId) {
+        return new WebSocketResponse(MessageType.ERROR,
+                Map.of("reason", reason.name(), "retryAfterMs", retryAfterMillis),
+                requestId, false, "Server busy");
+    }
+}
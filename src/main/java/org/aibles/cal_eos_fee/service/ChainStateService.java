@@ -0,0 +1,123 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.aibles.cal_eos_fee.dto.request.GetInfoResponse;
+import org.aibles.cal_eos_fee.dto.request.TransactionHeader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the latest chain info and its derived transaction header in memory so fee
+ * requests don't need their own get_info round trip.
+ */
+@Service
+@Slf4j
+public class ChainStateService {
+
+    private final EOSApiService eosApiService;
+    private final AtomicReference<ChainState> currentState = new AtomicReference<>();
+    private final Timer refreshTimer;
+    private final Counter refreshFailures;
+
+    @Value("${eos.chain-state.max-staleness-ms:5000}")
+    private long maxStalenessMs;
+
+    public ChainStateService(EOSApiService eosApiService, MeterRegistry meterRegistry) {
+        this.eosApiService = eosApiService;
+        this.refreshTimer = Timer.builder("eos.chain_state.refresh")
+                .description("Latency of background get_info refreshes")
+                .register(meterRegistry);
+        this.refreshFailures = Counter.builder("eos.chain_state.refresh.failures")
+                .description("Failed background get_info refreshes")
+                .register(meterRegistry);
+        Gauge.builder("eos.chain_state.staleness", this, ChainStateService::stalenessMillis)
+                .description("Age of the cached chain state")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${eos.chain-state.refresh-interval-ms:500}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Failed to refresh chain state: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the cached chain state, fetching it inline only when nothing fresh enough is cached.
+     */
+    public ChainState current() throws IOException {
+        ChainState state = currentState.get();
+        if (state != null && state.ageMillis() <= maxStalenessMs) {
+            return state;
+        }
+
+        log.warn("Chain state is missing or stale ({} ms), refreshing inline", state == null ? -1 : state.ageMillis());
+        return refresh();
+    }
+
+    /**
+     * Non-blocking variant of {@link #current()}; an inline refresh runs on the bounded elastic scheduler.
+     */
+    public Mono<ChainState> currentAsync() {
+        ChainState state = currentState.get();
+        if (state != null && state.ageMillis() <= maxStalenessMs) {
+            return Mono.just(state);
+        }
+        return Mono.fromCallable(this::current).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public ChainState refresh() throws IOException {
+        long start = System.nanoTime();
+        try {
+            return update(eosApiService.getInfo());
+        } catch (IOException | RuntimeException e) {
+            refreshFailures.increment();
+            throw e;
+        } finally {
+            refreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    ChainState update(GetInfoResponse getInfoResponse) {
+        ChainState state = new ChainState(getInfoResponse,
+                TransactionHeader.fromGetInfoResponse(getInfoResponse),
+                System.currentTimeMillis());
+        currentState.set(state);
+        log.debug("Chain state refreshed: head {}, lib {}",
+                getInfoResponse.getHeadBlockNum(), getInfoResponse.getLastIrreversibleBlockNum());
+        return state;
+    }
+
+    private double stalenessMillis() {
+        ChainState state = currentState.get();
+        return state == null ? Double.NaN : state.ageMillis();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ChainState {
+        private final GetInfoResponse info;
+        private final TransactionHeader header;
+        private final long fetchedAtMillis;
+
+        public long ageMillis() {
+            return System.currentTimeMillis() - fetchedAtMillis;
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package org.aibles.cal_eos_fee.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.aibles.cal_eos_fee.dto.request.*;
 import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
-import org.aibles.cal_eos_fee.util.EOSEncoder;
+import org.aibles.cal_eos_fee.util.TransferTransactionTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -25,44 +26,89 @@ public class ComputeTransferService {
     private String permissionName;
 
     private final EOSApiService eosApiService;
+    private final ReactiveEOSApiService reactiveEOSApiService;
+    private final ChainStateService chainStateService;
+    private final FeeResultCache feeResultCache;
+    private final FeeRequestCoalescer feeRequestCoalescer;
+    private final FeeEstimator feeEstimator;
+    private final LatestFeeResults latestFeeResults;
+    private final FeePipelineMetrics metrics;
+
+    private TransferTransactionTemplate transferTemplate;
+
+    @PostConstruct
+    void initTemplate() {
+        transferTemplate = TransferTransactionTemplate.of(eosAccount, transferAction, permissionName);
+    }
 
     public SendTransactionResponse calculateTransferFee(TransferData transferData) throws IOException {
+        return calculateTransferFee(transferData, Deadline.none());
+    }
 
-        GetInfoResponse getInfoResponse = eosApiService.getInfo();
-
-        Action action = new Action();
-        action.setAccount(eosAccount);
-        action.setName(transferAction);
-
-        PermissionLevel permissionLevel = new PermissionLevel();
-        permissionLevel.setActor(transferData.getFrom());
-        permissionLevel.setPermission(permissionName);
-
-        List<PermissionLevel> permissions = new ArrayList<>();
-        permissions.add(permissionLevel);
-
-        action.setAuthorization(permissions);
-
-        String encodeTransferData = EOSEncoder.encodeTransferData(transferData);
-
-        action.setData(encodeTransferData);
+    public SendTransactionResponse calculateTransferFee(TransferData transferData, Deadline deadline) throws IOException {
+        return calculateTransferFee(TransferKey.of(transferData), transferData, deadline);
+    }
 
-        TransactionHeader transactionHeader = TransactionHeader.fromGetInfoResponse(getInfoResponse);
+    /**
+     * As {@link #calculateTransferFee(TransferData, Deadline)}, for a transfer whose key the caller
+     * has already encoded.
+     */
+    public SendTransactionResponse calculateTransferFee(TransferKey key, TransferData transferData, Deadline deadline)
+            throws IOException {
+        ChainStateService.ChainState chainState = chainStateService.current();
+        long lastIrreversibleBlock = chainState.getInfo().getLastIrreversibleBlockNum();
+
+        SendTransactionResponse cached = feeResultCache.get(key, lastIrreversibleBlock);
+        if (cached != null) {
+            return cached;
+        }
+
+        return feeRequestCoalescer.execute(key, deadline, () -> {
+            SendTransactionResponse response = eosApiService.computeTransaction(
+                    buildComputeRequest(chainState.getHeader(), transferData), transferData.isFullTrace(), deadline);
+            feeResultCache.put(key, response, lastIrreversibleBlock);
+            feeEstimator.observe(key, response);
+            latestFeeResults.put(key, response);
+            return response;
+        });
+    }
 
+    public Mono<SendTransactionResponse> calculateTransferFeeAsync(TransferData transferData) {
+        return calculateTransferFeeAsync(transferData, Deadline.none());
+    }
 
-        Transaction transaction = new Transaction();
-        transaction.setExpiration(transactionHeader.getExpiration());
-        transaction.setRefBlockNum(transactionHeader.getRefBlockNum());
-        transaction.setRefBlockPrefix(transactionHeader.getRefBlockPrefix());
-        transaction.setMaxCpuUsageMs(transactionHeader.getMaxCpuUsageMs());
-        transaction.setMaxNetUsageWords(transactionHeader.getMaxNetUsageWords());
-        transaction.setDelaySec(transactionHeader.getDelaySec());
+    public Mono<SendTransactionResponse> calculateTransferFeeAsync(TransferData transferData, Deadline deadline) {
+        return Mono.defer(() -> calculateTransferFeeAsync(TransferKey.of(transferData), transferData, deadline));
+    }
 
-        List<Action> actions = new ArrayList<>();
-        actions.add(action);
-        transaction.setActions(actions);
+    /**
+     * As {@link #calculateTransferFeeAsync(TransferData, Deadline)}, for a transfer whose key the
+     * caller has already encoded.
+     */
+    public Mono<SendTransactionResponse> calculateTransferFeeAsync(TransferKey key, TransferData transferData,
+                                                                  Deadline deadline) {
+        return chainStateService.currentAsync().flatMap(chainState -> {
+            long lastIrreversibleBlock = chainState.getInfo().getLastIrreversibleBlockNum();
+
+            SendTransactionResponse cached = feeResultCache.get(key, lastIrreversibleBlock);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+
+            return feeRequestCoalescer.executeAsync(key, deadline, () -> reactiveEOSApiService
+                    .computeTransaction(buildComputeRequest(chainState.getHeader(), transferData), transferData.isFullTrace(), deadline)
+                    .doOnNext(response -> {
+                        feeResultCache.put(key, response, lastIrreversibleBlock);
+                        feeEstimator.observe(key, response);
+                        latestFeeResults.put(key, response);
+                    }));
+        });
+    }
 
-        String encodeTransaction = EOSEncoder.encodeTransaction(transaction);
+    private ComputeTransactionRequest buildComputeRequest(TransactionHeader transactionHeader, TransferData transferData) {
+        long start = System.nanoTime();
+        String encodeTransaction = transferTemplate.encode(transactionHeader, transferData);
+        metrics.record(FeePipelineMetrics.Stage.ENCODE, start);
 
         PackedTransaction packedTransaction = new PackedTransaction();
 
@@ -73,7 +119,6 @@ public class ComputeTransferService {
 
         ComputeTransactionRequest  computeTransactionRequest = new ComputeTransactionRequest();
         computeTransactionRequest.setTransaction(packedTransaction);
-
-        return eosApiService.computeTransaction(computeTransactionRequest);
+        return computeTransactionRequest;
     }
 }
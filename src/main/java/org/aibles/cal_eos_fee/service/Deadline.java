@@ -0,0 +1,49 @@
+package org.aibles.cal_eos_fee.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which a request must be answered. It is passed down to the EOS clients, which
+ * use the remaining time as their per-call timeout.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(long millis) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * No deadline: calls are bounded only by the clients' own timeouts.
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public boolean isBounded() {
+        return this != NONE;
+    }
+
+    public long remainingMillis() {
+        if (!isBounded()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return isBounded() && expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return isBounded() ? remainingMillis() + " ms left" : "no deadline";
+    }
+}
@@ -0,0 +1,18 @@
+package org.aibles.cal_eos_fee.service;
+
+import java.io.IOException;
+
+/**
+ * The request ran out of time. Nothing is said about the node that was being called, so this
+ * neither counts against its health nor is retried.
+ */
+public class DeadlineExceededException extends IOException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,62 +1,202 @@
 package org.aibles.cal_eos_fee.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import org.aibles.cal_eos_fee.dto.request.ComputeTransactionRequest;
 import org.aibles.cal_eos_fee.dto.request.GetInfoResponse;
 import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Blocking EOS API client. Calls go to the best node of the {@link EOSNodePool} and fail over
+ * once to the next best node when the first one is unavailable.
+ * <p>
+ * A bounded {@link Deadline} becomes the call timeout of each attempt, and no failover starts
+ * once it has passed. Transport failures count against the node whether they happen before the
+ * answer or while its body is read; only complete HTTP answers count as the node answering.
+ */
 @Service
+@Slf4j
 public class EOSApiService {
-    
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
     private final OkHttpClient httpClient;
-    private final ObjectMapper objectMapper;
-    private final String eosNodeUrl;
-    
-    public EOSApiService(@Value("${eos.node.url}") String eosNodeUrl) {
+    private final EOSJsonCodec jsonCodec;
+    private final EOSNodePool nodePool;
+    private final FeePipelineMetrics metrics;
+
+    public EOSApiService(EOSNodePool nodePool, EOSJsonCodec jsonCodec, FeePipelineMetrics metrics) {
         this.httpClient = new OkHttpClient();
-        this.objectMapper = new ObjectMapper();
-        this.eosNodeUrl = eosNodeUrl;
+        this.jsonCodec = jsonCodec;
+        this.nodePool = nodePool;
+        this.metrics = metrics;
     }
-    
+
     public GetInfoResponse getInfo() throws IOException {
-        String url = eosNodeUrl + "/v1/chain/get_info";
-        
+        long start = System.nanoTime();
+        try {
+            return execute(this::getInfo, Deadline.none());
+        } finally {
+            metrics.record(FeePipelineMetrics.Stage.GET_INFO, start);
+        }
+    }
+
+    public SendTransactionResponse computeTransaction(ComputeTransactionRequest request) throws IOException {
+        return computeTransaction(request, false);
+    }
+
+    public SendTransactionResponse computeTransaction(ComputeTransactionRequest request, boolean fullTrace) throws IOException {
+        return computeTransaction(request, fullTrace, Deadline.none());
+    }
+
+    public SendTransactionResponse computeTransaction(ComputeTransactionRequest request, boolean fullTrace,
+                                                      Deadline deadline) throws IOException {
+        long start = System.nanoTime();
+        try {
+            byte[] requestBody = jsonCodec.writeRequest(request);
+            return execute(node -> computeTransaction(node, requestBody, fullTrace, deadline), deadline);
+        } finally {
+            metrics.record(FeePipelineMetrics.Stage.COMPUTE_TRANSACTION, start);
+        }
+    }
+
+    /**
+     * Sends get_info to ejected nodes and puts them back into rotation once they answer.
+     */
+    @Scheduled(fixedDelayString = "${eos.node.probe-interval-ms:5000}")
+    public void probeEjectedNodes() {
+        for (EOSNode node : nodePool.ejectedNodes()) {
+            long start = System.nanoTime();
+            try {
+                getInfo(node);
+                nodePool.probeSucceeded(node, (System.nanoTime() - start) / 1000);
+            } catch (IOException e) {
+                nodePool.probeFailed(node);
+            }
+        }
+    }
+
+    private <T> T execute(NodeCall<T> call, Deadline deadline) throws IOException {
+        EOSNode node = nodePool.select();
+        try {
+            return timed(node, call);
+        } catch (EOSNodeUnavailableException e) {
+            EOSNode fallback = nodePool.selectExcluding(node);
+            if (fallback == null || deadline.isExpired()) {
+                throw e;
+            }
+            log.warn("EOS node {} unavailable ({}), retrying on {}", node, e.getMessage(), fallback);
+            return timed(fallback, call);
+        }
+    }
+
+    private <T> T timed(EOSNode node, NodeCall<T> call) throws IOException {
+        long start = System.nanoTime();
+        try {
+            T result = call.call(node);
+            nodePool.recordSuccess(node, (System.nanoTime() - start) / 1000);
+            return result;
+        } catch (DeadlineExceededException e) {
+            // Cut short by the caller; says nothing about the node
+            throw e;
+        } catch (EOSNodeUnavailableException e) {
+            nodePool.recordFailure(node);
+            throw e;
+        } catch (IOException e) {
+            // The node answered in full; the request itself was rejected or unreadable
+            nodePool.recordSuccess(node, (System.nanoTime() - start) / 1000);
+            throw e;
+        }
+    }
+
+    private GetInfoResponse getInfo(EOSNode node) throws IOException {
         Request request = new Request.Builder()
-                .url(url)
+                .url(node.getUrl() + "/v1/chain/get_info")
                 .build();
-        
-        try (Response response = httpClient.newCall(request).execute()) {
+
+        try (Response response = send(node, request, Deadline.none())) {
             if (!response.isSuccessful()) {
                 throw new IOException("Failed to get chain info: " + response);
             }
-            
-            String responseBody = response.body().string();
-            return objectMapper.readValue(responseBody, GetInfoResponse.class);
+
+            return readBody(node, Deadline.none(), () -> jsonCodec.readInfo(response.body().byteStream()));
         }
     }
-    
-    public SendTransactionResponse computeTransaction(ComputeTransactionRequest request) throws IOException {
-        String url = eosNodeUrl + "/v1/chain/compute_transaction";
-        
-        String requestBody = objectMapper.writeValueAsString(request);
-        RequestBody body = RequestBody.create(requestBody, MediaType.get("application/json; charset=utf-8"));
-        
+
+    private SendTransactionResponse computeTransaction(EOSNode node, byte[] requestBody, boolean fullTrace,
+                                                       Deadline deadline) throws IOException {
         Request httpRequest = new Request.Builder()
-                .url(url)
-                .post(body)
+                .url(node.getUrl() + "/v1/chain/compute_transaction")
+                .post(RequestBody.create(requestBody, JSON))
                 .build();
-        
-        try (Response response = httpClient.newCall(httpRequest).execute()) {
+
+        try (Response response = send(node, httpRequest, deadline)) {
             if (!response.isSuccessful()) {
-                throw new IOException("Failed to compute transaction: " + response.body().string());
+                String error = readBody(node, deadline, () -> response.body().string());
+                throw new IOException("Failed to compute transaction: " + error);
             }
-            
-            return objectMapper.readValue(response.body().string(), SendTransactionResponse.class);
+
+            return readBody(node, deadline, () -> jsonCodec.readTransaction(response.body().byteStream(), fullTrace));
+        }
+    }
+
+    private Response send(EOSNode node, Request request, Deadline deadline) throws IOException {
+        Call call = httpClient.newCall(request);
+        if (deadline.isBounded()) {
+            long remaining = deadline.remainingMillis();
+            if (remaining == 0) {
+                throw new DeadlineExceededException("Deadline passed before calling EOS node " + node);
+            }
+            call.timeout().timeout(remaining, TimeUnit.MILLISECONDS);
+        }
+
+        Response response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            throw transportFailure(node, deadline, "unreachable", e);
+        }
+        if (EOSNodeUnavailableException.isNodeFailureStatus(response.code())) {
+            response.close();
+            throw new EOSNodeUnavailableException("EOS node " + node + " answered HTTP " + response.code());
+        }
+        return response;
+    }
+
+    /**
+     * Reads a response body, treating a read that breaks off like a call that never got an answer.
+     * A body that arrives in full but does not parse is still the node's answer.
+     */
+    private static <T> T readBody(EOSNode node, Deadline deadline, BodyReader<T> reader) throws IOException {
+        try {
+            return reader.read();
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw transportFailure(node, deadline, "broke off its answer", e);
+        }
+    }
+
+    private static IOException transportFailure(EOSNode node, Deadline deadline, String what, IOException e) {
+        if (deadline.isExpired()) {
+            return new DeadlineExceededException("Deadline passed waiting for EOS node " + node, e);
         }
+        return new EOSNodeUnavailableException("EOS node " + node + " " + what + ": " + e.getMessage(), e);
+    }
+
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface NodeCall<T> {
+        T call(EOSNode node) throws IOException;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package org.aibles.cal_eos_fee.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.aibles.cal_eos_fee.dto.request.GetInfoResponse;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Cached readers and writers for EOS API bodies, used by both EOS clients.
+ * <p>
+ * compute_transaction responses are parsed straight from the body stream. Unless full traces
+ * are requested, the action traces, RAM deltas and stack contexts are skipped token by token
+ * instead of being built into maps nobody reads.
+ */
+@Component
+public class EOSJsonCodec {
+
+    private final ObjectReader infoReader;
+    private final ObjectReader feeReader;
+    private final ObjectReader fullTraceReader;
+    private final ObjectWriter requestWriter;
+    private final boolean fullTraces;
+
+    public EOSJsonCodec(@Value("${eos.response.full-traces:false}") boolean fullTraces) {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        this.infoReader = objectMapper.readerFor(GetInfoResponse.class);
+        this.feeReader = objectMapper.readerFor(SendTransactionResponse.class)
+                .withView(SendTransactionResponse.Views.Fee.class);
+        this.fullTraceReader = objectMapper.readerFor(SendTransactionResponse.class);
+        this.requestWriter = objectMapper.writer();
+        this.fullTraces = fullTraces;
+    }
+
+    public GetInfoResponse readInfo(InputStream body) throws IOException {
+        return infoReader.readValue(body);
+    }
+
+    /**
+     * Reads a compute_transaction response; {@code fullTrace} keeps everything the node returned.
+     */
+    public SendTransactionResponse readTransaction(InputStream body, boolean fullTrace) throws IOException {
+        return (fullTrace || fullTraces ? fullTraceReader : feeReader).readValue(body);
+    }
+
+    public byte[] writeRequest(Object request) throws IOException {
+        return requestWriter.writeValueAsBytes(request);
+    }
+}
@@ -0,0 +1,99 @@
+package org.aibles.cal_eos_fee.service;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Health and latency statistics of one EOS API node, maintained by {@link EOSNodePool}.
+ */
+public class EOSNode {
+
+    private static final int LATENCY_SAMPLES = 256;
+
+    @Getter
+    private final String url;
+
+    private final long[] latencySamples = new long[LATENCY_SAMPLES];
+    private int sampleCount;
+    private int nextSample;
+
+    private double ewmaLatencyMicros;
+    private double ewmaErrorRate;
+    private int consecutiveFailures;
+    private boolean ejected;
+
+    EOSNode(String url) {
+        this.url = url;
+    }
+
+    synchronized void recordSuccess(long latencyMicros, double alpha) {
+        ewmaLatencyMicros = sampleCount == 0 ? latencyMicros : alpha * latencyMicros + (1 - alpha) * ewmaLatencyMicros;
+        ewmaErrorRate = (1 - alpha) * ewmaErrorRate;
+        consecutiveFailures = 0;
+
+        latencySamples[nextSample] = latencyMicros;
+        nextSample = (nextSample + 1) % LATENCY_SAMPLES;
+        sampleCount = Math.min(sampleCount + 1, LATENCY_SAMPLES);
+    }
+
+    synchronized void recordFailure(double alpha) {
+        ewmaErrorRate = alpha + (1 - alpha) * ewmaErrorRate;
+        consecutiveFailures++;
+    }
+
+    synchronized void eject() {
+        ejected = true;
+    }
+
+    synchronized void reinstate() {
+        ejected = false;
+        consecutiveFailures = 0;
+        ewmaErrorRate = 0;
+    }
+
+    public synchronized boolean isEjected() {
+        return ejected;
+    }
+
+    public synchronized double getEwmaLatencyMicros() {
+        return ewmaLatencyMicros;
+    }
+
+    public synchronized double getEwmaErrorRate() {
+        return ewmaErrorRate;
+    }
+
+    synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    synchronized int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Routing score, lower is better: latency inflated by the recent error rate.
+     */
+    synchronized double score() {
+        return (ewmaLatencyMicros + 1) * (1 + 10 * ewmaErrorRate);
+    }
+
+    /**
+     * Latency percentile over the most recent samples, or -1 without samples.
+     */
+    synchronized long latencyPercentileMicros(double percentile) {
+        if (sampleCount == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencySamples, sampleCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
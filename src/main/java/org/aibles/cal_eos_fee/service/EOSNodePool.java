@@ -0,0 +1,159 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Routes EOS API calls across the configured nodes by EWMA latency and error rate.
+ * <p>
+ * A node is ejected after too many consecutive failures or a high error rate and stays out of
+ * rotation until a probe succeeds. If every node is ejected the least bad one is still used so
+ * that calls keep flowing.
+ */
+@Component
+@Slf4j
+public class EOSNodePool {
+
+    private static final int MIN_SAMPLES_FOR_ERROR_RATE = 10;
+    private static final int MIN_SAMPLES_FOR_HEDGING = 20;
+
+    private final List<EOSNode> nodes;
+    private final double ewmaAlpha;
+    private final int ejectAfterFailures;
+    private final double ejectErrorRate;
+    private final double hedgePercentile;
+    private final long hedgeMinDelayMs;
+
+    public EOSNodePool(MeterRegistry meterRegistry,
+                       @Value("${eos.node.urls:${eos.node.url}}") List<String> urls,
+                       @Value("${eos.node.ewma-alpha:0.2}") double ewmaAlpha,
+                       @Value("${eos.node.eject-after-failures:3}") int ejectAfterFailures,
+                       @Value("${eos.node.eject-error-rate:0.5}") double ejectErrorRate,
+                       @Value("${eos.node.hedge.percentile:0.95}") double hedgePercentile,
+                       @Value("${eos.node.hedge.min-delay-ms:20}") long hedgeMinDelayMs) {
+        this.nodes = new ArrayList<>();
+        for (String url : urls) {
+            String trimmed = url.trim();
+            while (trimmed.endsWith("/")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            }
+            if (!trimmed.isEmpty()) {
+                nodes.add(new EOSNode(trimmed));
+            }
+        }
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("At least one EOS node URL must be configured");
+        }
+        this.ewmaAlpha = ewmaAlpha;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectErrorRate = ejectErrorRate;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelayMs = hedgeMinDelayMs;
+
+        for (EOSNode node : nodes) {
+            Gauge.builder("eos.node.latency.ewma", node, EOSNode::getEwmaLatencyMicros)
+                    .tag("node", node.getUrl())
+                    .baseUnit("microseconds")
+                    .register(meterRegistry);
+            Gauge.builder("eos.node.error_rate", node, EOSNode::getEwmaErrorRate)
+                    .tag("node", node.getUrl())
+                    .register(meterRegistry);
+            Gauge.builder("eos.node.ejected", node, n -> n.isEjected() ? 1 : 0)
+                    .tag("node", node.getUrl())
+                    .register(meterRegistry);
+        }
+        log.info("EOS node pool initialized with {}", nodes);
+    }
+
+    public List<EOSNode> nodes() {
+        return List.copyOf(nodes);
+    }
+
+    /**
+     * Best node currently in rotation.
+     */
+    public EOSNode select() {
+        return selectExcluding(null);
+    }
+
+    /**
+     * Best node other than {@code excluded}, or {@code null} if there is no other node.
+     */
+    public EOSNode selectExcluding(EOSNode excluded) {
+        EOSNode best = null;
+        EOSNode fallback = null;
+        for (EOSNode node : nodes) {
+            if (node == excluded) {
+                continue;
+            }
+            if (!node.isEjected()) {
+                if (best == null || node.score() < best.score()) {
+                    best = node;
+                }
+            } else if (fallback == null || node.score() < fallback.score()) {
+                fallback = node;
+            }
+        }
+        return best != null ? best : fallback;
+    }
+
+    /**
+     * The node answered, whatever the answer was.
+     */
+    public void recordSuccess(EOSNode node, long latencyMicros) {
+        node.recordSuccess(latencyMicros, ewmaAlpha);
+    }
+
+    public void recordFailure(EOSNode node) {
+        node.recordFailure(ewmaAlpha);
+        if (node.isEjected()) {
+            return;
+        }
+        boolean tooManyFailures = node.getConsecutiveFailures() >= ejectAfterFailures;
+        boolean errorRateTooHigh = node.getSampleCount() >= MIN_SAMPLES_FOR_ERROR_RATE
+                && node.getEwmaErrorRate() >= ejectErrorRate;
+        if (tooManyFailures || errorRateTooHigh) {
+            node.eject();
+            log.warn("Ejected EOS node {} (consecutive failures: {}, error rate: {})",
+                    node, node.getConsecutiveFailures(), String.format("%.2f", node.getEwmaErrorRate()));
+        }
+    }
+
+    public List<EOSNode> ejectedNodes() {
+        return nodes.stream().filter(EOSNode::isEjected).toList();
+    }
+
+    public void probeSucceeded(EOSNode node, long latencyMicros) {
+        node.reinstate();
+        node.recordSuccess(latencyMicros, ewmaAlpha);
+        log.info("EOS node {} is healthy again", node);
+    }
+
+    public void probeFailed(EOSNode node) {
+        node.recordFailure(ewmaAlpha);
+        log.debug("Probe of ejected EOS node {} failed", node);
+    }
+
+    /**
+     * How long to wait on {@code node} before hedging to another node: its recent latency at the
+     * configured percentile, never below the minimum delay.
+     */
+    public long hedgeDelayMillis(EOSNode node) {
+        if (node.getSampleCount() < MIN_SAMPLES_FOR_HEDGING) {
+            // Too little history; fall back to the slowest known node's typical latency
+            long typical = nodes.stream()
+                    .map(n -> n.latencyPercentileMicros(hedgePercentile))
+                    .max(Comparator.naturalOrder())
+                    .orElse(-1L);
+            return Math.max(hedgeMinDelayMs, typical / 1000);
+        }
+        return Math.max(hedgeMinDelayMs, node.latencyPercentileMicros(hedgePercentile) / 1000);
+    }
+}
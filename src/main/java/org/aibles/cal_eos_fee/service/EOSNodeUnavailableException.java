@@ -0,0 +1,26 @@
+package org.aibles.cal_eos_fee.service;
+
+import java.io.IOException;
+
+/**
+ * An EOS node could not be reached or answered with a gateway error. Unlike a rejected
+ * transaction, this counts against the node's health and the call may be retried elsewhere.
+ */
+public class EOSNodeUnavailableException extends IOException {
+
+    public EOSNodeUnavailableException(String message) {
+        super(message);
+    }
+
+    public EOSNodeUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * nodeos answers failed API calls, including rejected transactions, with HTTP 500; only
+     * gateway-style statuses point at the node itself.
+     */
+    static boolean isNodeFailureStatus(int status) {
+        return status == 408 || status == 429 || status == 502 || status == 503 || status == 504;
+    }
+}
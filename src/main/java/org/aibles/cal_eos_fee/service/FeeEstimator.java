@@ -0,0 +1,159 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.aibles.cal_eos_fee.dto.websocket.FeeEstimate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Predicts transfer fees from the compute_transaction receipts already seen.
+ * <p>
+ * Receipts are grouped by memo size bucket and by whether the account pair is new to this
+ * instance. A group tracks an exponentially weighted mean and variance of {@code cpu_usage_us},
+ * so it follows drifts in node load, and the largest {@code net_usage_words} seen. An estimate is
+ * given once a group has {@code min-samples} receipts and its 95% interval is no wider than
+ * {@code max-interval-us} either side; otherwise the caller asks the node.
+ * <p>
+ * Groups and known pairs live in this instance only. A restart, or another node behind the load
+ * balancer, starts cold: every group asks the node until it has {@code min-samples} receipts of
+ * its own, and every account pair counts as new until this instance has seen it.
+ */
+@Component
+public class FeeEstimator {
+
+    private static final int[] MEMO_BUCKET_LIMITS = {0, 16, 64, 128};
+    private static final double Z_95 = 1.96;
+
+    private final boolean enabled;
+    private final int minSamples;
+    private final double maxIntervalMicros;
+    private final double alpha;
+    private final Map<AccountPair, Boolean> knownPairs;
+    private final Map<Features, Stats> stats = new ConcurrentHashMap<>();
+
+    private final Counter modelAnswers;
+    private final Counter nodeAnswers;
+
+    public FeeEstimator(MeterRegistry meterRegistry,
+                        @Value("${eos.estimate.enabled:true}") boolean enabled,
+                        @Value("${eos.estimate.min-samples:50}") int minSamples,
+                        @Value("${eos.estimate.max-interval-us:100}") double maxIntervalMicros,
+                        @Value("${eos.estimate.ewma-alpha:0.05}") double alpha,
+                        @Value("${eos.estimate.max-known-pairs:100000}") int maxKnownPairs) {
+        this.enabled = enabled;
+        this.minSamples = minSamples;
+        this.maxIntervalMicros = maxIntervalMicros;
+        this.alpha = alpha;
+        this.knownPairs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<AccountPair, Boolean> eldest) {
+                return size() > maxKnownPairs;
+            }
+        };
+        this.modelAnswers = Counter.builder("eos.fee_estimate.requests").tag("source", FeeEstimate.SOURCE_MODEL)
+                .register(meterRegistry);
+        this.nodeAnswers = Counter.builder("eos.fee_estimate.requests").tag("source", FeeEstimate.SOURCE_NODE)
+                .register(meterRegistry);
+        Gauge.builder("eos.fee_estimate.groups", stats, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns a confident estimate for this transfer, or {@code null} when the node has to be asked.
+     */
+    public FeeEstimate estimate(TransferKey key) {
+        Stats group = enabled ? stats.get(features(key)) : null;
+        FeeEstimate estimate = group != null ? group.estimate() : null;
+        if (estimate == null) {
+            nodeAnswers.increment();
+            return null;
+        }
+        modelAnswers.increment();
+        return estimate;
+    }
+
+    /**
+     * Learns from a fresh compute_transaction result; failed transactions are ignored.
+     */
+    public void observe(TransferKey key, SendTransactionResponse response) {
+        if (!enabled || response == null || response.getProcessed() == null) {
+            return;
+        }
+        SendTransactionResponse.Processed processed = response.getProcessed();
+        if (processed.getException() != null || processed.getReceipt() == null) {
+            return;
+        }
+        Features features = features(key);
+        stats.computeIfAbsent(features, f -> new Stats())
+                .add(processed.getReceipt().getCpuUsageUs(), processed.getReceipt().getNetUsageWords());
+        if (features.newPair()) {
+            synchronized (knownPairs) {
+                knownPairs.put(new AccountPair(key.getFrom(), key.getTo()), Boolean.TRUE);
+            }
+        }
+    }
+
+    public static FeeEstimate fromReceipt(SendTransactionResponse.Receipt receipt) {
+        return new FeeEstimate(receipt.getCpuUsageUs(), receipt.getNetUsageWords(), 0, 0, FeeEstimate.SOURCE_NODE);
+    }
+
+    Features features(TransferKey key) {
+        boolean newPair;
+        synchronized (knownPairs) {
+            newPair = knownPairs.get(new AccountPair(key.getFrom(), key.getTo())) == null;
+        }
+        return new Features(memoBucket(key.getMemo().getBytes(StandardCharsets.UTF_8).length), newPair);
+    }
+
+    static int memoBucket(int memoBytes) {
+        for (int bucket = 0; bucket < MEMO_BUCKET_LIMITS.length; bucket++) {
+            if (memoBytes <= MEMO_BUCKET_LIMITS[bucket]) {
+                return bucket;
+            }
+        }
+        return MEMO_BUCKET_LIMITS.length;
+    }
+
+    // No action count: every request is the single transfer action of TransferTransactionTemplate
+    record Features(int memoBucket, boolean newPair) {
+    }
+
+    private record AccountPair(long from, long to) {
+    }
+
+    private final class Stats {
+
+        private long samples;
+        private double mean;
+        private double variance;
+        private long maxNetWords;
+
+        synchronized void add(long cpuUsageUs, long netUsageWords) {
+            if (samples++ == 0) {
+                mean = cpuUsageUs;
+            } else {
+                double diff = cpuUsageUs - mean;
+                double increment = alpha * diff;
+                mean += increment;
+                variance = (1 - alpha) * (variance + diff * increment);
+            }
+            maxNetWords = Math.max(maxNetWords, netUsageWords);
+        }
+
+        synchronized FeeEstimate estimate() {
+            double halfWidth = Z_95 * Math.sqrt(variance);
+            if (samples < minSamples || halfWidth > maxIntervalMicros) {
+                return null;
+            }
+            return new FeeEstimate(Math.round(mean), maxNetWords, Math.round(Math.ceil(halfWidth)), samples,
+                    FeeEstimate.SOURCE_MODEL);
+        }
+    }
+}
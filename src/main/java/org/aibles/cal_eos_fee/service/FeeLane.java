@@ -0,0 +1,111 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lane that fee calculations run on, apart from the STOMP inbound channel.
+ * <p>
+ * The inbound channel only reads a fee message, admits it and hands it over here; the rate limit
+ * check, blocking EOS calls and everything after run on this lane. PING and other cheap messages
+ * are answered on the channel thread and never wait behind fee work.
+ * <p>
+ * On platform threads at most {@code threads} tasks run at once and {@code queue-capacity} wait;
+ * past that, tasks are rejected with {@link RejectedExecutionException}. When
+ * {@code websocket.executor.mode} is {@code virtual} every task gets a virtual thread of its own
+ * and nothing queues: the lane is unbounded, and {@link AdmissionController}'s in-flight limit is
+ * what caps the fee calls running at once. Both settings are then ignored.
+ */
+@Component
+public class FeeLane {
+
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+    private final Counter rejected;
+
+    @Autowired
+    public FeeLane(MeterRegistry meterRegistry,
+                   @Value("${websocket.lane.fee.threads:64}") int threads,
+                   @Value("${websocket.lane.fee.queue-capacity:2000}") int queueCapacity,
+                   @Value("${websocket.executor.mode:platform}") String executorMode) {
+        this(meterRegistry, "virtual".equalsIgnoreCase(executorMode)
+                ? unbounded(Thread.ofVirtual().name("fee-lane-", 0).factory())
+                : bounded(threads, queueCapacity, Thread.ofPlatform().name("fee-lane-", 0).daemon().factory()));
+    }
+
+    FeeLane(MeterRegistry meterRegistry, int threads, int queueCapacity, ThreadFactory threadFactory) {
+        this(meterRegistry, bounded(threads, queueCapacity, threadFactory));
+    }
+
+    FeeLane(MeterRegistry meterRegistry, ThreadFactory threadFactory) {
+        this(meterRegistry, unbounded(threadFactory));
+    }
+
+    private FeeLane(MeterRegistry meterRegistry, ThreadPoolExecutor executor) {
+        this.executor = executor;
+        this.scheduler = Schedulers.fromExecutorService(executor, "fee-lane");
+        this.rejected = Counter.builder("websocket.lane.rejected").tag("lane", "fee").register(meterRegistry);
+        Gauge.builder("websocket.lane.queued", executor, e -> e.getQueue().size())
+                .description("Fee lane tasks waiting for a thread")
+                .tag("lane", "fee")
+                .register(meterRegistry);
+        Gauge.builder("websocket.lane.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Fee lane tasks running")
+                .tag("lane", "fee")
+                .register(meterRegistry);
+        this.executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Fee lane is full: " + pool.getQueue().size() + " tasks queued");
+        });
+    }
+
+    private static ThreadPoolExecutor bounded(int threads, int queueCapacity, ThreadFactory threadFactory) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // A thread per task: nothing is handed over through the queue and idle threads end at once
+    private static ThreadPoolExecutor unbounded(ThreadFactory threadFactory) {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                threadFactory);
+    }
+
+    /**
+     * Scheduler over the lane, for {@code subscribeOn}. A full lane signals
+     * {@link RejectedExecutionException} to the subscriber.
+     */
+    public Scheduler scheduler() {
+        return scheduler;
+    }
+
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    public static boolean isRejection(Throwable failure) {
+        return failure instanceof RejectedExecutionException
+                || failure != null && failure.getCause() instanceof RejectedExecutionException;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,63 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of each stage of a fee quote: {@code fee.pipeline.stage} tagged by stage, and
+ * {@code fee.pipeline.rate_limit} tagged by the path that decided the check. Percentile
+ * histograms are switched on in the {@code management.metrics.distribution} properties.
+ */
+@Component
+public class FeePipelineMetrics {
+
+    public enum Stage {
+        SESSION_UPDATE, CONVERT, ENCODE, GET_INFO, COMPUTE_TRANSACTION, SEND
+    }
+
+    public enum RateLimitPath {
+        REDIS, LEASED, LOCAL
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<RateLimitPath, Timer> rateLimitTimers = new EnumMap<>(RateLimitPath.class);
+
+    public FeePipelineMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("fee.pipeline.stage")
+                    .description("Latency of one stage of a fee quote")
+                    .tag("stage", stage.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        for (RateLimitPath path : RateLimitPath.values()) {
+            rateLimitTimers.put(path, Timer.builder("fee.pipeline.rate_limit")
+                    .description("Latency of the rate limit check")
+                    .tag("path", path.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    public void record(Stage stage, long startNanos) {
+        stageTimers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void record(RateLimitPath path, long startNanos) {
+        rateLimitTimers.get(path).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Times {@code mono} from subscription until it completes, fails or is cancelled.
+     */
+    public <T> Mono<T> time(Stage stage, Mono<T> mono) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono.doFinally(signal -> record(stage, start));
+        });
+    }
+}
@@ -0,0 +1,167 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for compute_transaction: concurrent requests for the same transfer share the
+ * first caller's upstream call. Followers wait with their own timeout, cut short by their
+ * {@link Deadline}; the shared result or failure is handed to every waiter.
+ * <p>
+ * The shared call runs under the leader's deadline. When that runs out first, followers with time
+ * left get a {@link FollowerTimeoutException} instead, so they retry rather than fail with it.
+ */
+@Component
+@Slf4j
+public class FeeRequestCoalescer {
+
+    private final ConcurrentHashMap<TransferKey, CompletableFuture<SendTransactionResponse>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final long followerTimeoutMs;
+
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter followerTimeouts;
+
+    public FeeRequestCoalescer(MeterRegistry meterRegistry,
+                               @Value("${eos.coalescing.enabled:true}") boolean enabled,
+                               @Value("${eos.coalescing.follower-timeout-ms:10000}") long followerTimeoutMs) {
+        this.enabled = enabled;
+        this.followerTimeoutMs = followerTimeoutMs;
+        this.leaders = Counter.builder("eos.coalescing.requests").tag("role", "leader").register(meterRegistry);
+        this.followers = Counter.builder("eos.coalescing.requests").tag("role", "follower").register(meterRegistry);
+        this.followerTimeouts = Counter.builder("eos.coalescing.follower.timeouts").register(meterRegistry);
+    }
+
+    public SendTransactionResponse execute(TransferKey key, Callable<SendTransactionResponse> call) throws IOException {
+        return execute(key, Deadline.none(), call);
+    }
+
+    public SendTransactionResponse execute(TransferKey key, Deadline deadline, Callable<SendTransactionResponse> call)
+            throws IOException {
+        if (!enabled) {
+            return invoke(call);
+        }
+
+        CompletableFuture<SendTransactionResponse> created = new CompletableFuture<>();
+        CompletableFuture<SendTransactionResponse> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            followers.increment();
+            return await(existing, deadline);
+        }
+
+        leaders.increment();
+        try {
+            SendTransactionResponse response = invoke(call);
+            created.complete(response);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    public Mono<SendTransactionResponse> executeAsync(TransferKey key, Supplier<Mono<SendTransactionResponse>> call) {
+        return executeAsync(key, Deadline.none(), call);
+    }
+
+    public Mono<SendTransactionResponse> executeAsync(TransferKey key, Deadline deadline,
+                                                      Supplier<Mono<SendTransactionResponse>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+
+        return Mono.defer(() -> {
+            CompletableFuture<SendTransactionResponse> created = new CompletableFuture<>();
+            CompletableFuture<SendTransactionResponse> existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                followers.increment();
+                long timeoutMs = followerTimeoutMs(deadline);
+                return Mono.fromFuture(existing, true)
+                        .timeout(Duration.ofMillis(timeoutMs))
+                        .onErrorMap(TimeoutException.class, e -> followerTimeout(timeoutMs, deadline))
+                        .onErrorMap(DeadlineExceededException.class, e -> leaderDeadline(e, deadline));
+            }
+
+            leaders.increment();
+            // Subscribed independently so a cancelled leader doesn't cancel the call for its followers
+            Mono.defer(call)
+                    .doFinally(signal -> inFlight.remove(key, created))
+                    .subscribe(created::complete, created::completeExceptionally, () -> created.complete(null));
+            return Mono.fromFuture(created, true);
+        });
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private SendTransactionResponse await(CompletableFuture<SendTransactionResponse> future, Deadline deadline)
+            throws IOException {
+        long timeoutMs = followerTimeoutMs(deadline);
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw followerTimeout(timeoutMs, deadline);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DeadlineExceededException deadlineExceeded) {
+                throw leaderDeadline(deadlineExceeded, deadline);
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Coalesced compute_transaction failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for coalesced compute_transaction", e);
+        }
+    }
+
+    private long followerTimeoutMs(Deadline deadline) {
+        return Math.min(followerTimeoutMs, deadline.remainingMillis());
+    }
+
+    private IOException followerTimeout(long timeoutMs, Deadline deadline) {
+        if (deadline.isExpired()) {
+            return new DeadlineExceededException("Deadline passed waiting for an in-flight compute_transaction");
+        }
+        followerTimeouts.increment();
+        log.warn("Timed out after {} ms waiting for an in-flight compute_transaction", timeoutMs);
+        return new FollowerTimeoutException("Timed out waiting for compute_transaction after " + timeoutMs + " ms");
+    }
+
+    // The leader's deadline ended the shared call; only a follower out of time itself has to fail
+    private static IOException leaderDeadline(DeadlineExceededException failure, Deadline deadline) {
+        if (deadline.isExpired()) {
+            return failure;
+        }
+        return new FollowerTimeoutException("In-flight compute_transaction ran out of its leader's deadline",
+                failure);
+    }
+
+    private static SendTransactionResponse invoke(Callable<SendTransactionResponse> call) throws IOException {
+        try {
+            return call.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("compute_transaction failed", e);
+        }
+    }
+}
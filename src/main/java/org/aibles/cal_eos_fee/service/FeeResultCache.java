@@ -0,0 +1,128 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded LRU of compute_transaction results, scoped to the last irreversible block.
+ * <p>
+ * An entry is dropped as soon as a lookup sees a newer last irreversible block than the one it
+ * was computed under, or once its TTL has passed.
+ */
+@Component
+public class FeeResultCache {
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<TransferKey, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter blockEvictions;
+
+    @Autowired
+    public FeeResultCache(MeterRegistry meterRegistry,
+                          @Value("${eos.fee-cache.enabled:true}") boolean enabled,
+                          @Value("${eos.fee-cache.max-size:10000}") int maxSize,
+                          @Value("${eos.fee-cache.ttl-ms:3000}") long ttlMillis) {
+        this(meterRegistry, enabled, maxSize, ttlMillis, System::currentTimeMillis);
+    }
+
+    FeeResultCache(MeterRegistry meterRegistry, boolean enabled, int maxSize, long ttlMillis, LongSupplier clock) {
+        this.enabled = enabled;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+
+        this.hits = Counter.builder("eos.fee_cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("eos.fee_cache.misses").register(meterRegistry);
+        this.sizeEvictions = evictionCounter(meterRegistry, "size");
+        this.expiredEvictions = evictionCounter(meterRegistry, "expired");
+        this.blockEvictions = evictionCounter(meterRegistry, "block");
+
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TransferKey, Entry> eldest) {
+                if (size() > maxSize) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("eos.fee_cache.size", this, FeeResultCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached result for {@code key} if it was computed under {@code lastIrreversibleBlock}
+     * and has not expired, otherwise {@code null}.
+     */
+    public SendTransactionResponse get(TransferKey key, long lastIrreversibleBlock) {
+        if (!enabled) {
+            return null;
+        }
+
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.lastIrreversibleBlock < lastIrreversibleBlock) {
+                entries.remove(key);
+                blockEvictions.increment();
+                misses.increment();
+                return null;
+            }
+            if (clock.getAsLong() - entry.createdAtMillis > ttlMillis) {
+                entries.remove(key);
+                expiredEvictions.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.response;
+        }
+    }
+
+    public void put(TransferKey key, SendTransactionResponse response, long lastIrreversibleBlock) {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (entries) {
+            entries.put(key, new Entry(response, lastIrreversibleBlock, clock.getAsLong()));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("eos.fee_cache.evictions")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final SendTransactionResponse response;
+        private final long lastIrreversibleBlock;
+        private final long createdAtMillis;
+    }
+}
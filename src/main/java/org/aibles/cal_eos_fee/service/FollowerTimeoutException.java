@@ -0,0 +1,19 @@
+package org.aibles.cal_eos_fee.service;
+
+import java.io.IOException;
+
+/**
+ * A coalesced caller gave up waiting for the in-flight call it joined, or that call ran out of the
+ * leader's deadline, with time left on the caller's own deadline. A retry, which starts a call of
+ * its own, may still answer in time.
+ */
+public class FollowerTimeoutException extends IOException {
+
+    public FollowerTimeoutException(String message) {
+        super(message);
+    }
+
+    public FollowerTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,91 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded LRU of the latest successful compute_transaction result per transfer, kept across
+ * blocks so stale-while-revalidate requests can be answered at once.
+ * <p>
+ * Unlike {@link FeeResultCache}, entries survive the last irreversible block advancing; they are
+ * only served while younger than {@code max-age-ms}.
+ */
+@Component
+public class LatestFeeResults {
+
+    private final long maxAgeMillis;
+    private final LongSupplier clock;
+    private final Map<TransferKey, Entry> entries;
+
+    @Autowired
+    public LatestFeeResults(MeterRegistry meterRegistry,
+                            @Value("${eos.fee-cache.latest.max-size:10000}") int maxSize,
+                            @Value("${eos.fee-cache.latest.max-age-ms:60000}") long maxAgeMillis) {
+        this(meterRegistry, maxSize, maxAgeMillis, System::currentTimeMillis);
+    }
+
+    LatestFeeResults(MeterRegistry meterRegistry, int maxSize, long maxAgeMillis, LongSupplier clock) {
+        this.maxAgeMillis = maxAgeMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TransferKey, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        Gauge.builder("eos.fee_cache.latest.size", this, LatestFeeResults::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the latest result for {@code key} with its age, or {@code null} if there is none young
+     * enough.
+     */
+    public Result get(TransferKey key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            long ageMillis = clock.getAsLong() - entry.computedAtMillis();
+            if (ageMillis > maxAgeMillis) {
+                entries.remove(key);
+                return null;
+            }
+            return new Result(entry.response(), ageMillis);
+        }
+    }
+
+    /**
+     * Keeps {@code response} if the transaction succeeded; failed transactions are not worth
+     * showing ahead of a fresh answer.
+     */
+    public void put(TransferKey key, SendTransactionResponse response) {
+        if (response == null || response.getProcessed() == null || response.getProcessed().getReceipt() == null
+                || response.getProcessed().getException() != null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(response, clock.getAsLong()));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public record Result(SendTransactionResponse response, long ageMillis) {
+    }
+
+    private record Entry(SendTransactionResponse response, long computedAtMillis) {
+    }
+}
@@ -0,0 +1,245 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Cluster-wide limiter that admits from locally leased permits.
+ * <p>
+ * Each instance leases up to {@code batch-size} permits per key from {@link RedisRateLimiter};
+ * they are charged in Redis when leased, so the cluster never admits more than the Redis quota
+ * hands out. Only an empty lease costs a round trip, taken by one caller at a time per key while
+ * the others wait and spend what it brings back. Below half a batch the lease is topped up in the
+ * background, and leases idle past {@code lease-ttl-ms} hand their unused permits back. As
+ * permits leased in one window may be spent early in the next, the overshoot on any window is at
+ * most {@code batch-size} per instance and key.
+ * <p>
+ * Redis calls go through the circuit breaker; once it opens, leases run dry and
+ * {@link RateLimitService} falls back to local limits.
+ */
+@Component
+@Slf4j
+public class LeasedRateLimiter {
+
+    private final RedisRateLimiter redisRateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final int batchSize;
+    private final long leaseTtlMillis;
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+
+    private final Counter localAdmissions;
+    private final Counter redisLeases;
+
+    @Autowired
+    public LeasedRateLimiter(RedisRateLimiter redisRateLimiter,
+                             CircuitBreaker circuitBreaker,
+                             MeterRegistry meterRegistry,
+                             @Value("${websocket.rate-limit.lease.batch-size:5}") int batchSize,
+                             @Value("${websocket.rate-limit.lease.ttl-ms:2000}") long leaseTtlMillis) {
+        this(redisRateLimiter, circuitBreaker, meterRegistry, batchSize, leaseTtlMillis,
+                new VirtualThreadTaskExecutor("rate-limit-lease-"), System::currentTimeMillis);
+    }
+
+    LeasedRateLimiter(RedisRateLimiter redisRateLimiter, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry,
+                      int batchSize, long leaseTtlMillis, Executor executor, LongSupplier clock) {
+        this.redisRateLimiter = redisRateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.batchSize = batchSize;
+        this.leaseTtlMillis = leaseTtlMillis;
+        this.executor = executor;
+        this.clock = clock;
+        this.localAdmissions = Counter.builder("rate_limit.lease.admissions").tag("source", "local").register(meterRegistry);
+        this.redisLeases = Counter.builder("rate_limit.lease.requests").register(meterRegistry);
+        Gauge.builder("rate_limit.lease.keys", leases, Map::size).register(meterRegistry);
+    }
+
+    public RateLimitDecision tryAcquire(String key, int limit, long windowMillis, int permits) {
+        if (permits > limit) {
+            return new RateLimitDecision(false, 0, -1);
+        }
+        long now = clock.getAsLong();
+        Lease lease = leases.computeIfAbsent(key, k -> new Lease(limit, windowMillis, now + leaseTtlMillis));
+
+        if (lease.tryTake(permits, now + leaseTtlMillis)) {
+            localAdmissions.increment();
+            renewInBackground(key, lease);
+            return new RateLimitDecision(true, lease.available() + lease.redisRemaining, 0);
+        }
+
+        // Lease empty or too small: this is the only path that waits on Redis. Refills are taken one
+        // at a time, so callers missing together don't each lease a batch
+        lease.refill.lock();
+        try {
+            if (lease.tryTake(permits, now + leaseTtlMillis)) {
+                localAdmissions.increment();
+                return new RateLimitDecision(true, lease.available() + lease.redisRemaining, 0);
+            }
+
+            int wanted = Math.min(limit, Math.max(batchSize, permits)) - (int) lease.available();
+            RedisRateLimiter.Grant grant = circuitBreaker.executeSupplier(() ->
+                    redisRateLimiter.lease(key, limit, windowMillis, wanted));
+            redisLeases.increment();
+            lease.add(grant.getGranted(), grant.getRemaining(), now + leaseTtlMillis);
+
+            boolean admitted = lease.tryTake(permits, now + leaseTtlMillis);
+            long available = lease.available();
+            if (releaseIfOrphaned(key, lease)) {
+                available = 0;
+            } else if (admitted) {
+                renewInBackground(key, lease);
+            }
+            return admitted
+                    ? new RateLimitDecision(true, available + grant.getRemaining(), 0)
+                    : new RateLimitDecision(false, available + grant.getRemaining(), grant.getRetryAfterMillis());
+        } finally {
+            lease.refill.unlock();
+        }
+    }
+
+    /**
+     * Hands permits of leases idle past the TTL back to Redis.
+     */
+    @Scheduled(fixedDelayString = "${websocket.rate-limit.lease.ttl-ms:2000}")
+    public void releaseExpired() {
+        long now = clock.getAsLong();
+        leases.forEach((key, lease) -> {
+            if (lease.isExpired(now) && leases.remove(key, lease)) {
+                release(key, lease);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        leases.forEach((key, lease) -> {
+            if (leases.remove(key, lease)) {
+                release(key, lease);
+            }
+        });
+    }
+
+    int leaseCount() {
+        return leases.size();
+    }
+
+    private void renewInBackground(String key, Lease lease) {
+        if (lease.available() >= batchSize / 2 || !lease.renewing.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            lease.refill.lock();
+            try {
+                // Top up to one batch so a lease never holds more than batch-size permits
+                int wanted = Math.min(lease.limit, batchSize) - (int) lease.available();
+                if (wanted > 0) {
+                    RedisRateLimiter.Grant grant = circuitBreaker.executeSupplier(() ->
+                            redisRateLimiter.lease(key, lease.limit, lease.windowMillis, wanted));
+                    redisLeases.increment();
+                    lease.add(grant.getGranted(), grant.getRemaining(), clock.getAsLong() + leaseTtlMillis);
+                    releaseIfOrphaned(key, lease);
+                }
+            } catch (Exception e) {
+                log.debug("Could not renew rate limit lease for {}: {}", key, e.getMessage());
+            } finally {
+                lease.refill.unlock();
+                lease.renewing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Hands back permits granted to a lease that {@link #releaseExpired} dropped while the grant was
+     * in flight; they would otherwise stay charged in Redis with no one to spend them.
+     */
+    private boolean releaseIfOrphaned(String key, Lease lease) {
+        if (leases.get(key) == lease) {
+            return false;
+        }
+        release(key, lease);
+        return true;
+    }
+
+    private void release(String key, Lease lease) {
+        long unused = lease.drain();
+        if (unused <= 0) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                circuitBreaker.executeRunnable(() ->
+                        redisRateLimiter.release(key, lease.limit, lease.windowMillis, (int) unused));
+            } catch (Exception e) {
+                // The permits stay charged until the window passes
+                log.debug("Could not release {} leased permits for {}: {}", unused, key, e.getMessage());
+            }
+        });
+    }
+
+    private static final class Lease {
+
+        private final int limit;
+        private final long windowMillis;
+        private final AtomicLong permits = new AtomicLong();
+        private final AtomicBoolean renewing = new AtomicBoolean();
+        // Held by whoever is leasing from Redis for this key, in the foreground or the background
+        private final ReentrantLock refill = new ReentrantLock();
+        private volatile long idleUntilMillis;
+        private volatile long redisRemaining;
+
+        // Idle from the start, so a key that is never granted anything still expires
+        Lease(int limit, long windowMillis, long idleUntil) {
+            this.limit = limit;
+            this.windowMillis = windowMillis;
+            this.idleUntilMillis = idleUntil;
+        }
+
+        boolean tryTake(int wanted, long idleUntil) {
+            long current;
+            do {
+                current = permits.get();
+                if (current < wanted) {
+                    return false;
+                }
+            } while (!permits.compareAndSet(current, current - wanted));
+            idleUntilMillis = idleUntil;
+            return true;
+        }
+
+        void add(long granted, long remaining, long idleUntil) {
+            permits.addAndGet(granted);
+            redisRemaining = remaining;
+            idleUntilMillis = idleUntil;
+        }
+
+        long available() {
+            return permits.get();
+        }
+
+        long drain() {
+            return permits.getAndSet(0);
+        }
+
+        boolean isExpired(long now) {
+            return now >= idleUntilMillis;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process fixed-window limiter used while Redis is unavailable, with the same window as the
+ * Redis limiter ({@code websocket.rate-limit.window-minutes}).
+ * <p>
+ * Each key holds a single {@link AtomicLong} packing the window index (high bits) and the count
+ * (low {@value #COUNT_BITS} bits), so a check is one CAS loop and a new window starts implicitly.
+ * Keys whose window has passed are swept periodically; a swept state is marked {@link #RETIRED}
+ * first so a concurrent check never charges a counter that is no longer in the map. The number of
+ * keys is capped; once full, unknown keys are rejected until the next sweep frees room.
+ */
+@Component
+@Slf4j
+public class LocalRateLimiter {
+
+    static final int COUNT_BITS = 24;
+    static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    static final long RETIRED = -1L;
+
+    private final ConcurrentHashMap<String, AtomicLong> states = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final int maxKeys;
+    private final LongSupplier clock;
+
+    private final Counter evictions;
+    private final Counter rejectedFull;
+
+    @Autowired
+    public LocalRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${websocket.rate-limit.window-minutes}") int windowMinutes,
+                            @Value("${websocket.rate-limit.local.max-keys:100000}") int maxKeys) {
+        this(meterRegistry, Duration.ofMinutes(windowMinutes).toMillis(), maxKeys, System::currentTimeMillis);
+    }
+
+    LocalRateLimiter(MeterRegistry meterRegistry, long windowMillis, int maxKeys, LongSupplier clock) {
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+        this.evictions = Counter.builder("rate_limit.local.evictions").register(meterRegistry);
+        this.rejectedFull = Counter.builder("rate_limit.local.rejected_full").register(meterRegistry);
+        Gauge.builder("rate_limit.local.keys", states, Map::size).register(meterRegistry);
+    }
+
+    public RateLimitDecision tryAcquire(String key, int limit, int permits) {
+        if (limit > COUNT_MASK) {
+            throw new IllegalArgumentException("Local rate limit cannot exceed " + COUNT_MASK);
+        }
+        if (permits > limit) {
+            return new RateLimitDecision(false, 0, -1);
+        }
+
+        long now = clock.getAsLong();
+        long window = now / windowMillis;
+        long retryAfter = (window + 1) * windowMillis - now;
+
+        while (true) {
+            AtomicLong state = stateFor(key);
+            if (state == null) {
+                rejectedFull.increment();
+                return new RateLimitDecision(false, 0, retryAfter);
+            }
+
+            long current = state.get();
+            if (current == RETIRED) {
+                // Swept concurrently; pick up the replacement
+                states.remove(key, state);
+                continue;
+            }
+
+            long count = (current >>> COUNT_BITS) == window ? current & COUNT_MASK : 0;
+            if (count + permits > limit) {
+                return new RateLimitDecision(false, limit - count, retryAfter);
+            }
+            if (state.compareAndSet(current, (window << COUNT_BITS) | (count + permits))) {
+                return new RateLimitDecision(true, limit - count - permits, 0);
+            }
+        }
+    }
+
+    /**
+     * Drops keys whose window has ended.
+     */
+    @Scheduled(fixedDelayString = "${websocket.rate-limit.local.sweep-interval-ms:10000}")
+    public int evictExpired() {
+        long window = clock.getAsLong() / windowMillis;
+        int evicted = 0;
+        for (Map.Entry<String, AtomicLong> entry : states.entrySet()) {
+            AtomicLong state = entry.getValue();
+            long current = state.get();
+            if (current != RETIRED && (current >>> COUNT_BITS) < window && state.compareAndSet(current, RETIRED)) {
+                states.remove(entry.getKey(), state);
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            evictions.increment(evicted);
+            log.debug("Evicted {} expired local rate limit keys", evicted);
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    private AtomicLong stateFor(String key) {
+        AtomicLong state = states.get(key);
+        if (state != null) {
+            return state;
+        }
+        if (states.size() >= maxKeys) {
+            return null;
+        }
+        AtomicLong created = new AtomicLong();
+        AtomicLong existing = states.putIfAbsent(key, created);
+        return existing != null ? existing : created;
+    }
+}
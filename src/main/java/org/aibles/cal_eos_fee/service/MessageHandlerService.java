@@ -1,37 +1,40 @@
 package org.aibles.cal_eos_fee.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.aibles.cal_eos_fee.dto.websocket.MessageType;
 import org.aibles.cal_eos_fee.dto.websocket.WebSocketMessage;
 import org.aibles.cal_eos_fee.dto.websocket.WebSocketResponse;
+import org.aibles.cal_eos_fee.websocket.handler.CalculateFeeBatchHandler;
 import org.aibles.cal_eos_fee.websocket.handler.CalculateFeeHandler;
 import org.aibles.cal_eos_fee.websocket.handler.PingHandler;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 @Service
 @Slf4j
 public class MessageHandlerService {
 
     private final CalculateFeeHandler calculateFeeHandler;
+    private final CalculateFeeBatchHandler calculateFeeBatchHandler;
     private final PingHandler pingHandler;
 
-    public MessageHandlerService(CalculateFeeHandler calculateFeeHandler, PingHandler pingHandler) {
+    public MessageHandlerService(CalculateFeeHandler calculateFeeHandler,
+                                 CalculateFeeBatchHandler calculateFeeBatchHandler,
+                                 PingHandler pingHandler) {
         this.calculateFeeHandler = calculateFeeHandler;
+        this.calculateFeeBatchHandler = calculateFeeBatchHandler;
         this.pingHandler = pingHandler;
     }
 
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
+    /**
+     * Handles a message on the calling thread. Only types {@link #isAsync} reports as synchronous
+     * have an arm here; fee calculations always go through {@link #handleMessageAsync}.
+     */
     public WebSocketResponse handleMessage(WebSocketMessage message, String sessionId) {
         log.debug("Handling message type {} for session {}", message.getType(), sessionId);
 
         try {
             return switch (message.getType()) {
-                case CALCULATE_FEE -> calculateFeeHandler.handle(message, sessionId);
                 case PING -> pingHandler.handle(message, sessionId);
                 default -> {
                     log.warn("Unknown message type {} from session {}", message.getType(), sessionId);
@@ -43,4 +46,36 @@ public class MessageHandlerService {
             throw e;
         }
     }
+
+    /**
+     * Whether this message type is replied to asynchronously rather than through the return value.
+     * Fee calculations always are, and run on the {@link FeeLane}, so neither upstream calls nor
+     * retry backoff hold a channel thread and PING never waits behind them.
+     */
+    public boolean isAsync(MessageType messageType) {
+        return switch (messageType) {
+            case CALCULATE_FEE, CALCULATE_FEE_BATCH -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * How much of the admission in-flight limit the message takes: one per upstream call it can
+     * have running at once.
+     */
+    public int admissionWeight(WebSocketMessage message) {
+        return message.getType() == MessageType.CALCULATE_FEE_BATCH
+                ? calculateFeeBatchHandler.admissionWeight(message)
+                : 1;
+    }
+
+    public Mono<WebSocketResponse> handleMessageAsync(WebSocketMessage message, String sessionId) {
+        log.debug("Handling message type {} asynchronously for session {}", message.getType(), sessionId);
+
+        return switch (message.getType()) {
+            case CALCULATE_FEE -> calculateFeeHandler.handleAsync(message, sessionId);
+            case CALCULATE_FEE_BATCH -> calculateFeeBatchHandler.handle(message, sessionId);
+            default -> Mono.fromSupplier(() -> handleMessage(message, sessionId));
+        };
+    }
 }
\ No newline at end of file
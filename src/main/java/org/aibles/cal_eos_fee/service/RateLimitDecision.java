@@ -0,0 +1,34 @@
+package org.aibles.cal_eos_fee.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.aibles.cal_eos_fee.dto.websocket.MessageType;
+import org.aibles.cal_eos_fee.dto.websocket.WebSocketResponse;
+
+import java.util.Map;
+
+/**
+ * Outcome of a rate limit check. {@code remaining} is -1 for message types that are not limited;
+ * {@code retryAfterMillis} is 0 when allowed and -1 when the request can never fit in the limit.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class RateLimitDecision {
+
+    public static final RateLimitDecision UNLIMITED = new RateLimitDecision(true, -1, 0);
+
+    private final boolean allowed;
+    private final long remaining;
+    private final long retryAfterMillis;
+
+    /**
+     * Error reply for a rejected request, telling the client when to try again.
+     */
+    public WebSocketResponse toErrorResponse(String requestId) {
+        return new WebSocketResponse(MessageType.ERROR,
+                Map.of("remaining", remaining, "retryAfterMs", retryAfterMillis),
+                requestId, false, "Rate limit exceeded");
+    }
+}
@@ -5,20 +5,27 @@ import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
 import org.aibles.cal_eos_fee.dto.websocket.MessageType;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Per-session limit on CALCULATE_FEE, enforced cluster-wide by {@link RedisRateLimiter} and locally
+ * while Redis is unavailable.
+ * <p>
+ * In {@code direct} mode every check is a Redis call; in {@code leased} mode checks are admitted
+ * from permits leased by {@link LeasedRateLimiter} and only an empty lease waits on Redis.
+ */
 @Service
 @Slf4j
 public class RateLimitService {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisRateLimiter redisRateLimiter;
     private final CircuitBreaker circuitBreaker;
-    private final LocalFallbackService localFallbackService;
+    private final LocalRateLimiter localRateLimiter;
+    private final LeasedRateLimiter leasedRateLimiter;
+    private final boolean leased;
+    private final FeePipelineMetrics metrics;
     
     @Value("${websocket.rate-limit.calculate-fee}")
     private int calculateFeeLimit;
@@ -26,90 +33,74 @@ public class RateLimitService {
     @Value("${websocket.rate-limit.window-minutes}")
     private int windowMinutes;
 
-    public RateLimitService(RedisTemplate<String, Object> redisTemplate, 
+    public RateLimitService(RedisRateLimiter redisRateLimiter,
                            CircuitBreaker circuitBreaker,
-                           LocalFallbackService localFallbackService) {
-        this.redisTemplate = redisTemplate;
+                           LocalRateLimiter localRateLimiter,
+                           LeasedRateLimiter leasedRateLimiter,
+                           FeePipelineMetrics metrics,
+                           @Value("${websocket.rate-limit.mode:direct}") String mode) {
+        this.redisRateLimiter = redisRateLimiter;
         this.circuitBreaker = circuitBreaker;
-        this.localFallbackService = localFallbackService;
+        this.localRateLimiter = localRateLimiter;
+        this.leasedRateLimiter = leasedRateLimiter;
+        this.metrics = metrics;
+        this.leased = switch (mode.trim().toLowerCase()) {
+            case "direct" -> false;
+            case "leased" -> true;
+            default -> throw new IllegalArgumentException("Unknown rate limit mode: " + mode);
+        };
     }
 
     public boolean isAllowed(String sessionId, MessageType messageType) {
+        return isAllowed(sessionId, messageType, 1);
+    }
+
+    /**
+     * Charges {@code permits} requests against the session's limit in one check, e.g. one per batch item.
+     */
+    public boolean isAllowed(String sessionId, MessageType messageType, int permits) {
+        return check(sessionId, messageType, permits).isAllowed();
+    }
+
+    public RateLimitDecision check(String sessionId, MessageType messageType) {
+        return check(sessionId, messageType, 1);
+    }
+
+    /**
+     * Like {@link #isAllowed(String, MessageType, int)}, also reporting the remaining quota and retry-after.
+     */
+    public RateLimitDecision check(String sessionId, MessageType messageType, int permits) {
         if (messageType != MessageType.CALCULATE_FEE) {
-            return true;
+            return RateLimitDecision.UNLIMITED;
         }
 
+        String key = sessionId + ":" + messageType.name();
+        long windowMillis = Duration.ofMinutes(windowMinutes).toMillis();
+        long start = System.nanoTime();
+        FeePipelineMetrics.RateLimitPath path = leased ? FeePipelineMetrics.RateLimitPath.LEASED : FeePipelineMetrics.RateLimitPath.REDIS;
         try {
-            return circuitBreaker.executeSupplier(() -> {
-                String key = "rate_limit:" + sessionId + ":" + messageType.name();
-                
-                // Get current count - Redis increment operations return Long, get operations can return various types
-                Object countObj = redisTemplate.opsForValue().get(key);
-                int currentCount = 0;
-                
-                if (countObj != null) {
-                    if (countObj instanceof Number) {
-                        currentCount = ((Number) countObj).intValue();
-                    } else if (countObj instanceof String) {
-                        try {
-                            currentCount = Integer.parseInt((String) countObj);
-                        } catch (NumberFormatException e) {
-                            log.warn("Invalid count format in Redis for key {}: {}", key, countObj);
-                            currentCount = 0;
-                        }
-                    }
-                }
-                
-                if (currentCount >= calculateFeeLimit) {
-                    log.warn("Rate limit exceeded for session {} and message type {}", sessionId, messageType);
-                    return false;
-                }
-                
-                // Increment and set expiry
-                Long newCount = redisTemplate.opsForValue().increment(key);
-                redisTemplate.expire(key, Duration.ofMinutes(windowMinutes));
-                
-                log.debug("Rate limit check passed for session {}, count: {}/{}", sessionId, newCount, calculateFeeLimit);
-                return true;
-            });
+            // The leased limiter guards its own Redis calls with the circuit breaker
+            RateLimitDecision decision = leased
+                    ? leasedRateLimiter.tryAcquire(key, calculateFeeLimit, windowMillis, permits)
+                    : circuitBreaker.executeSupplier(() ->
+                            redisRateLimiter.tryAcquire(key, calculateFeeLimit, windowMillis, permits));
+            if (decision.isAllowed()) {
+                log.debug("Rate limit check passed for session {}, remaining: {}/{}", sessionId, decision.getRemaining(), calculateFeeLimit);
+            } else {
+                log.warn("Rate limit exceeded for session {} and message type {}, retry after {} ms",
+                        sessionId, messageType, decision.getRetryAfterMillis());
+            }
+            return decision;
         } catch (CallNotPermittedException e) {
             log.warn("Redis circuit breaker is open, falling back to local rate limiting for session {}", sessionId);
-            return localFallbackService.isAllowed(sessionId, messageType, calculateFeeLimit);
+            path = FeePipelineMetrics.RateLimitPath.LOCAL;
+            return localRateLimiter.tryAcquire(key, calculateFeeLimit, permits);
         } catch (Exception e) {
             log.error("Error checking rate limit for session {}, falling back to local service", sessionId, e);
-            return localFallbackService.isAllowed(sessionId, messageType, calculateFeeLimit);
-        }
-    }
-
-    @Service
-    public static class LocalFallbackService {
-        private final ConcurrentHashMap<String, AtomicInteger> localCounters = new ConcurrentHashMap<>();
-        private final ConcurrentHashMap<String, Long> windowStartTimes = new ConcurrentHashMap<>();
-
-        public boolean isAllowed(String sessionId, MessageType messageType, int limit) {
-            if (messageType != MessageType.CALCULATE_FEE) {
-                return true;
-            }
-
-            String key = sessionId + ":" + messageType.name();
-            long now = System.currentTimeMillis();
-            long windowDuration = 60000; // 1 minute in milliseconds
-
-            windowStartTimes.compute(key, (k, startTime) -> {
-                if (startTime == null || (now - startTime) >= windowDuration) {
-                    localCounters.put(key, new AtomicInteger(0));
-                    return now;
-                }
-                return startTime;
-            });
-
-            AtomicInteger counter = localCounters.get(key);
-            if (counter == null) {
-                counter = new AtomicInteger(0);
-                localCounters.put(key, counter);
-            }
-
-            return counter.incrementAndGet() <= limit;
+            path = FeePipelineMetrics.RateLimitPath.LOCAL;
+            return localRateLimiter.tryAcquire(key, calculateFeeLimit, permits);
+        } finally {
+            metrics.record(path, start);
         }
     }
-}
\ No newline at end of file
+}
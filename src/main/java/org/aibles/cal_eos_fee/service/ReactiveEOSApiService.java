@@ -0,0 +1,188 @@
+package org.aibles.cal_eos_fee.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aibles.cal_eos_fee.dto.request.ComputeTransactionRequest;
+import org.aibles.cal_eos_fee.dto.request.GetInfoResponse;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Non-blocking counterpart of {@link EOSApiService} backed by a pooled reactor-netty client.
+ * <p>
+ * With hedging enabled, a duplicate request goes to the next best node when the first one has
+ * not answered within its recent latency percentile; whichever answers first wins and the other
+ * request is cancelled.
+ * <p>
+ * A bounded {@link Deadline} caps each attempt with a timeout of the time remaining, which fails
+ * with {@link DeadlineExceededException}; no failover or hedge starts once it has passed.
+ */
+@Service
+@Slf4j
+public class ReactiveEOSApiService {
+
+    private final WebClient webClient;
+    private final EOSNodePool nodePool;
+    private final EOSJsonCodec jsonCodec;
+    private final boolean hedgingEnabled;
+    private final FeePipelineMetrics metrics;
+
+    public ReactiveEOSApiService(WebClient.Builder webClientBuilder,
+                                 EOSNodePool nodePool,
+                                 EOSJsonCodec jsonCodec,
+                                 FeePipelineMetrics metrics,
+                                 @Value("${eos.client.max-connections:500}") int maxConnections,
+                                 @Value("${eos.client.pending-acquire-max-count:10000}") int pendingAcquireMaxCount,
+                                 @Value("${eos.client.response-timeout-ms:10000}") long responseTimeoutMs,
+                                 @Value("${eos.node.hedge.enabled:false}") boolean hedgingEnabled) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("eos-node")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
+        this.webClient = webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.nodePool = nodePool;
+        this.jsonCodec = jsonCodec;
+        this.hedgingEnabled = hedgingEnabled;
+        this.metrics = metrics;
+    }
+
+    public Mono<GetInfoResponse> getInfo() {
+        return metrics.time(FeePipelineMetrics.Stage.GET_INFO, execute(Deadline.none(), node -> webClient.get()
+                .uri(node.getUrl() + "/v1/chain/get_info")
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, response -> toError(node, response, "Failed to get chain info: " + response.statusCode() + " "))
+                .bodyToMono(DataBuffer.class)
+                .flatMap(body -> decode(body, jsonCodec::readInfo))));
+    }
+
+    public Mono<SendTransactionResponse> computeTransaction(ComputeTransactionRequest request) {
+        return computeTransaction(request, false);
+    }
+
+    public Mono<SendTransactionResponse> computeTransaction(ComputeTransactionRequest request, boolean fullTrace) {
+        return computeTransaction(request, fullTrace, Deadline.none());
+    }
+
+    public Mono<SendTransactionResponse> computeTransaction(ComputeTransactionRequest request, boolean fullTrace,
+                                                            Deadline deadline) {
+        return metrics.time(FeePipelineMetrics.Stage.COMPUTE_TRANSACTION, execute(deadline, node -> webClient.post()
+                .uri(node.getUrl() + "/v1/chain/compute_transaction")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, response -> toError(node, response, "Failed to compute transaction: "))
+                .bodyToMono(DataBuffer.class)
+                .flatMap(body -> decode(body, in -> jsonCodec.readTransaction(in, fullTrace)))));
+    }
+
+    private <T> Mono<T> execute(Deadline deadline, Function<EOSNode, Mono<T>> call) {
+        return Mono.defer(() -> {
+            EOSNode primary = nodePool.select();
+            EOSNode secondary = nodePool.selectExcluding(primary);
+            Mono<T> first = timed(primary, call, deadline);
+            if (secondary == null) {
+                return first;
+            }
+            if (!hedgingEnabled) {
+                return first.onErrorResume(EOSNodeUnavailableException.class, e -> {
+                    if (deadline.isExpired()) {
+                        return Mono.error(e);
+                    }
+                    log.warn("EOS node {} unavailable ({}), retrying on {}", primary, e.getMessage(), secondary);
+                    return timed(secondary, call, deadline);
+                });
+            }
+
+            Mono<T> hedge = Mono.delay(Duration.ofMillis(nodePool.hedgeDelayMillis(primary)))
+                    .flatMap(tick -> timed(secondary, call, deadline));
+            // First answer wins, rejected requests included; only node failures defer to the other request
+            return Flux.merge(first.materialize(), hedge.materialize())
+                    .filter(signal -> !signal.isOnError() || !(signal.getThrowable() instanceof EOSNodeUnavailableException))
+                    .next()
+                    .switchIfEmpty(Mono.error(() -> new EOSNodeUnavailableException(
+                            "EOS nodes " + primary + " and " + secondary + " are both unavailable")))
+                    .dematerialize();
+        });
+    }
+
+    private <T> Mono<T> timed(EOSNode node, Function<EOSNode, Mono<T>> call, Deadline deadline) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Mono<T> attempt = call.apply(node)
+                    .onErrorMap(WebClientRequestException.class, e ->
+                            new EOSNodeUnavailableException("EOS node " + node + " unreachable: " + e.getMessage(), e));
+            if (deadline.isBounded()) {
+                long remaining = deadline.remainingMillis();
+                if (remaining == 0) {
+                    return Mono.error(new DeadlineExceededException("Deadline passed before calling EOS node " + node));
+                }
+                attempt = attempt.timeout(Duration.ofMillis(remaining))
+                        .onErrorMap(TimeoutException.class, e ->
+                                new DeadlineExceededException("Deadline passed waiting for EOS node " + node, e));
+            }
+            return attempt.doOnEach(signal -> record(node, signal, start));
+        });
+    }
+
+    private void record(EOSNode node, Signal<?> signal, long start) {
+        if (signal.isOnError() && signal.getThrowable() instanceof DeadlineExceededException) {
+            // Cut short by the caller; says nothing about the node
+            return;
+        }
+        if (signal.isOnError() && signal.getThrowable() instanceof EOSNodeUnavailableException) {
+            nodePool.recordFailure(node);
+        } else if (signal.isOnNext() || signal.isOnError()) {
+            nodePool.recordSuccess(node, (System.nanoTime() - start) / 1000);
+        }
+    }
+
+    /**
+     * Parses straight from the aggregated response buffer, releasing it once read.
+     */
+    private static <T> Mono<T> decode(DataBuffer body, BodyReader<T> reader) {
+        return Mono.fromCallable(() -> {
+            try (InputStream in = body.asInputStream(true)) {
+                return reader.read(in);
+            }
+        });
+    }
+
+    private static Mono<IOException> toError(EOSNode node, ClientResponse response, String message) {
+        if (EOSNodeUnavailableException.isNodeFailureStatus(response.statusCode().value())) {
+            return response.releaseBody().then(Mono.fromSupplier(() ->
+                    new EOSNodeUnavailableException("EOS node " + node + " answered HTTP " + response.statusCode().value())));
+        }
+        return response.bodyToMono(String.class)
+                .defaultIfEmpty("")
+                .map(body -> new IOException(message + body));
+    }
+
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+}
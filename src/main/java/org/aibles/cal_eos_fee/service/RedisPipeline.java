@@ -0,0 +1,57 @@
+package org.aibles.cal_eos_fee.service;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sends several hot-path commands in one pipelined round trip, using the compact
+ * {@code longRedisTemplate} codec.
+ * <p>
+ * Replies come back in command order once the pipeline is flushed, a {@code Boolean} per write.
+ */
+@Component
+public class RedisPipeline {
+
+    private final RedisTemplate<String, Long> longRedisTemplate;
+
+    public RedisPipeline(RedisTemplate<String, Long> longRedisTemplate) {
+        this.longRedisTemplate = longRedisTemplate;
+    }
+
+    public List<Object> execute(Consumer<Commands> commands) {
+        return longRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                // The pipeline runs on longRedisTemplate, so these are its String keys and Long values
+                commands.accept(new Commands((RedisOperations<String, Long>) operations));
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Commands queued on the pipeline; their return values arrive through {@link #execute}.
+     */
+    public static final class Commands {
+
+        private final ValueOperations<String, Long> values;
+
+        private Commands(RedisOperations<String, Long> operations) {
+            this.values = operations.opsForValue();
+        }
+
+        public Commands setLong(String key, long value, Duration ttl) {
+            values.set(key, value, ttl);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.aibles.cal_eos_fee.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rate limiter evaluated by a Lua script inside Redis: the check, the charge and the expiry
+ * happen atomically in a single round trip (EVALSHA), using the Redis server clock.
+ * <p>
+ * {@code sliding-window} weights the previous fixed window by its overlap with the sliding one;
+ * {@code token-bucket} refills {@code limit} tokens per window and allows bursts up to the limit.
+ * Besides all-or-nothing checks, the scripts can lease a batch of permits for local use and take
+ * unused ones back.
+ */
+@Component
+@Slf4j
+public class RedisRateLimiter {
+
+    public enum Algorithm {
+        SLIDING_WINDOW("sw", "scripts/rate_limit_sliding_window.lua"),
+        TOKEN_BUCKET("tb", "scripts/rate_limit_token_bucket.lua");
+
+        private final String keyTag;
+        private final String scriptPath;
+
+        Algorithm(String keyTag, String scriptPath) {
+            this.keyTag = keyTag;
+            this.scriptPath = scriptPath;
+        }
+
+        public static Algorithm fromProperty(String value) {
+            return Algorithm.valueOf(value.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    private static final String KEY_PREFIX = "rate_limit:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Algorithm algorithm;
+    private final DefaultRedisScript<List<Long>> script;
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate,
+                            @Value("${websocket.rate-limit.algorithm:sliding-window}") String algorithm) {
+        this.redisTemplate = redisTemplate;
+        this.algorithm = Algorithm.fromProperty(algorithm);
+        this.script = loadScript(this.algorithm);
+        log.info("Redis rate limiter using {} algorithm", this.algorithm);
+    }
+
+    /**
+     * Charges {@code permits} against {@code limit} per {@code windowMillis} for {@code key} if they fit.
+     */
+    public RateLimitDecision tryAcquire(String key, int limit, long windowMillis, int permits) {
+        Grant grant = run("acquire", key, limit, windowMillis, permits);
+        return new RateLimitDecision(grant.getGranted() > 0, grant.getRemaining(), grant.getRetryAfterMillis());
+    }
+
+    /**
+     * Charges as many of {@code permits} as currently fit, possibly none.
+     */
+    public Grant lease(String key, int limit, long windowMillis, int permits) {
+        return run("lease", key, limit, windowMillis, permits);
+    }
+
+    /**
+     * Gives back permits that were leased but not used.
+     */
+    public void release(String key, int limit, long windowMillis, int permits) {
+        run("release", key, limit, windowMillis, permits);
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    private Grant run(String mode, String key, int limit, long windowMillis, int permits) {
+        List<Long> reply = redisTemplate.execute(script, List.of(redisKey(key)),
+                Integer.toString(limit), Long.toString(windowMillis), Integer.toString(permits), mode);
+        if (reply == null || reply.size() != 3) {
+            throw new IllegalStateException("Unexpected rate limit script reply: " + reply);
+        }
+        return new Grant(reply.get(0), reply.get(1), reply.get(2));
+    }
+
+    String redisKey(String key) {
+        // Tagged per algorithm: the scripts keep differently shaped hashes
+        return KEY_PREFIX + algorithm.keyTag + ":" + key;
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Grant {
+        private final long granted;
+        private final long remaining;
+        private final long retryAfterMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DefaultRedisScript<List<Long>> loadScript(Algorithm algorithm) {
+        DefaultRedisScript<List<Long>> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(algorithm.scriptPath)));
+        script.setResultType((Class<List<Long>>) (Class<?>) List.class);
+        return script;
+    }
+}
@@ -0,0 +1,117 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Retries fee calls after transient failures, within the request's {@link Deadline} and a global
+ * token bucket shared by every request.
+ * <p>
+ * Only node failures ({@link EOSNodeUnavailableException}) and coalesced waits that timed out
+ * short of the deadline ({@link FollowerTimeoutException}) are transient; rejected transactions,
+ * bad input and expired deadlines fail at once. The bucket refills at
+ * {@code eos.retry.budget.per-second} up to {@code eos.retry.budget.burst}, so when the upstream
+ * is down retries stop adding load after the burst is spent. Backoff delays run on a timer, never
+ * by sleeping the calling thread.
+ */
+@Component
+@Slf4j
+public class RetryBudget {
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final double tokensPerMilli;
+    private final double burst;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long refilledAt;
+
+    private final Counter retried;
+    private final Counter rejectedBudget;
+    private final Counter rejectedDeadline;
+
+    @Autowired
+    public RetryBudget(MeterRegistry meterRegistry,
+                       @Value("${eos.retry.max-attempts:3}") int maxAttempts,
+                       @Value("${eos.retry.initial-backoff-ms:50}") long initialBackoffMillis,
+                       @Value("${eos.retry.budget.per-second:10}") double perSecond,
+                       @Value("${eos.retry.budget.burst:20}") int burst) {
+        this(meterRegistry, maxAttempts, initialBackoffMillis, perSecond, burst, System::currentTimeMillis);
+    }
+
+    RetryBudget(MeterRegistry meterRegistry, int maxAttempts, long initialBackoffMillis, double perSecond, int burst,
+                LongSupplier clock) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.tokensPerMilli = perSecond / 1000;
+        this.burst = burst;
+        this.clock = clock;
+        this.tokens = burst;
+        this.refilledAt = clock.getAsLong();
+        this.retried = Counter.builder("eos.retry.attempts").tag("outcome", "retried").register(meterRegistry);
+        this.rejectedBudget = Counter.builder("eos.retry.attempts").tag("outcome", "budget_exhausted").register(meterRegistry);
+        this.rejectedDeadline = Counter.builder("eos.retry.attempts").tag("outcome", "deadline").register(meterRegistry);
+    }
+
+    /**
+     * Resubscribes to {@code call} after transient failures while attempts, deadline and budget allow.
+     */
+    public <T> Mono<T> retry(Mono<T> call, Deadline deadline) {
+        return call.retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            long backoff = backoffMillis(signal.totalRetries());
+            if (!isTransient(failure) || signal.totalRetries() + 1 >= maxAttempts) {
+                return Mono.error(failure);
+            }
+            if (deadline.remainingMillis() <= backoff) {
+                rejectedDeadline.increment();
+                return Mono.error(failure);
+            }
+            if (!tryAcquire()) {
+                rejectedBudget.increment();
+                log.debug("Retry budget exhausted, not retrying: {}", failure.getMessage());
+                return Mono.error(failure);
+            }
+            retried.increment();
+            log.debug("Retrying in {} ms after: {}", backoff, failure.getMessage());
+            return Mono.delay(Duration.ofMillis(backoff));
+        })));
+    }
+
+    public static boolean isTransient(Throwable failure) {
+        return failure instanceof EOSNodeUnavailableException || failure instanceof FollowerTimeoutException;
+    }
+
+    /**
+     * Takes one retry token if the bucket has one.
+     */
+    synchronized boolean tryAcquire() {
+        long now = clock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerMilli);
+        refilledAt = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Exponential with jitter: between half and all of {@code initial * 2^retry}.
+     */
+    private long backoffMillis(long retry) {
+        long ceiling = initialBackoffMillis << Math.min(retry, 16);
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+}
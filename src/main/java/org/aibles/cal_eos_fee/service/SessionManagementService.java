@@ -1,39 +1,143 @@
 package org.aibles.cal_eos_fee.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 
+/**
+ * Tracks session activity in memory and writes it behind to Redis.
+ * <p>
+ * An inbound message only records the time and marks the session dirty. Every
+ * {@code websocket.session.flush-interval-ms} the dirty sessions are written in pipelined batches
+ * of at most {@code websocket.session.flush-batch-size}: one SET with EX per session, however many
+ * messages it sent meanwhile, storing the last activity as epoch millis.
+ * <p>
+ * A failed batch stays dirty for the next flush. The same loop drops local entries idle past the
+ * session timeout.
+ */
 @Service
 @Slf4j
 public class SessionManagementService {
 
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final ConcurrentHashMap<String, Instant> localSessions = new ConcurrentHashMap<>();
-    private final String REDIS_SESSION_KEY = "session:";
-    
-    @Value("${websocket.session.timeout-minutes}")
-    private int sessionTimeoutMinutes;
+    private static final String REDIS_SESSION_KEY = "session:";
 
-    public SessionManagementService(RedisTemplate<String, Object> redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    private final RedisPipeline redisPipeline;
+    private final ConcurrentHashMap<String, Long> localSessions = new ConcurrentHashMap<>();
+    private final Set<String> dirtySessions = ConcurrentHashMap.newKeySet();
+    private final Duration sessionTimeout;
+    private final int flushBatchSize;
+    private final LongSupplier clock;
+
+    @Autowired
+    public SessionManagementService(RedisPipeline redisPipeline,
+                                    @Value("${websocket.session.timeout-minutes}") int sessionTimeoutMinutes,
+                                    @Value("${websocket.session.flush-batch-size:500}") int flushBatchSize) {
+        this(redisPipeline, Duration.ofMinutes(sessionTimeoutMinutes), flushBatchSize, System::currentTimeMillis);
+    }
+
+    SessionManagementService(RedisPipeline redisPipeline, Duration sessionTimeout,
+                             int flushBatchSize, LongSupplier clock) {
+        this.redisPipeline = redisPipeline;
+        this.sessionTimeout = sessionTimeout;
+        this.flushBatchSize = flushBatchSize;
+        this.clock = clock;
     }
 
     public void updateSessionActivity(String sessionId) {
+        localSessions.put(sessionId, clock.getAsLong());
+        dirtySessions.add(sessionId);
+    }
+
+    /**
+     * Writes dirty sessions to Redis and evicts timed-out local entries; returns the sessions written.
+     */
+    @Scheduled(fixedDelayString = "${websocket.session.flush-interval-ms:1000}")
+    public int flush() {
+        evictExpired();
+
+        int written = 0;
+        Map<String, Long> batch = new LinkedHashMap<>();
+        Iterator<String> dirty = dirtySessions.iterator();
+        while (dirty.hasNext()) {
+            String sessionId = dirty.next();
+            // Cleared before reading the time, so an update racing with the flush marks it dirty again
+            dirty.remove();
+            Long lastActivity = localSessions.get(sessionId);
+            if (lastActivity == null) {
+                continue;
+            }
+            batch.put(sessionId, lastActivity);
+            if (batch.size() >= flushBatchSize) {
+                if (!tryWrite(batch)) {
+                    // Requeued after leaving the iterator, so the rest waits for the next flush
+                    dirtySessions.addAll(batch.keySet());
+                    return written;
+                }
+                written += batch.size();
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            if (!tryWrite(batch)) {
+                dirtySessions.addAll(batch.keySet());
+                return written;
+            }
+            written += batch.size();
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    int localSessionCount() {
+        return localSessions.size();
+    }
+
+    int dirtySessionCount() {
+        return dirtySessions.size();
+    }
+
+    /**
+     * Sends one pipelined SET with EX per session.
+     */
+    void writeBatch(Map<String, Long> batch) {
+        redisPipeline.execute(commands -> batch.forEach((sessionId, lastActivity) ->
+                commands.setLong(REDIS_SESSION_KEY + sessionId, lastActivity, sessionTimeout)));
+    }
+
+    private boolean tryWrite(Map<String, Long> batch) {
         try {
-            String key = REDIS_SESSION_KEY + sessionId;
-            redisTemplate.opsForValue().set(key, Instant.now().toString());
-            redisTemplate.expire(key, Duration.ofMinutes(sessionTimeoutMinutes));
-            log.debug("Session {} activity updated in Redis", sessionId);
+            writeBatch(batch);
+            log.debug("Flushed activity of {} sessions to Redis", batch.size());
+            return true;
         } catch (Exception e) {
-            log.warn("Failed to update session {} in Redis, using local fallback", sessionId, e);
-            localSessions.put(sessionId, Instant.now());
+            log.warn("Failed to flush activity of {} sessions to Redis, retrying next flush: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void evictExpired() {
+        // Redis expires these on its own; a dirty mark left behind is skipped by the flush
+        long cutoff = clock.getAsLong() - sessionTimeout.toMillis();
+        int before = localSessions.size();
+        localSessions.values().removeIf(lastActivity -> lastActivity <= cutoff);
+        int evicted = before - localSessions.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} timed-out local sessions", evicted);
         }
     }
-}
\ No newline at end of file
+}
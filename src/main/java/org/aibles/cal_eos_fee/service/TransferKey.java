@@ -0,0 +1,63 @@
+package org.aibles.cal_eos_fee.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.aibles.cal_eos_fee.dto.request.TransferData;
+import org.aibles.cal_eos_fee.util.EOSEncoder;
+
+/**
+ * Identity of a transfer quote: the encoded account names, the integer asset amount, the memo and
+ * whether the full trace was asked for.
+ */
+@Getter
+public final class TransferKey {
+
+    private final long from;
+    private final long to;
+    private final long amount;
+    private final String memo;
+    private final boolean fullTrace;
+    @Getter(AccessLevel.NONE)
+    private final int hash;
+
+    private TransferKey(long from, long to, long amount, String memo, boolean fullTrace) {
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+        this.memo = memo;
+        this.fullTrace = fullTrace;
+
+        int result = Long.hashCode(from);
+        result = 31 * result + Long.hashCode(to);
+        result = 31 * result + Long.hashCode(amount);
+        result = 31 * result + memo.length();
+        result = 31 * result + memo.hashCode();
+        this.hash = 31 * result + Boolean.hashCode(fullTrace);
+    }
+
+    public static TransferKey of(TransferData transferData) {
+        return new TransferKey(
+                EOSEncoder.encodeAccountName(transferData.getFrom()),
+                EOSEncoder.encodeAccountName(transferData.getTo()),
+                EOSEncoder.toAssetAmount(transferData.getQuantity()),
+                transferData.getMemo() == null ? "" : transferData.getMemo(),
+                transferData.isFullTrace());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TransferKey other)) {
+            return false;
+        }
+        return hash == other.hash && from == other.from && to == other.to
+                && amount == other.amount && fullTrace == other.fullTrace && memo.equals(other.memo);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,141 @@
+package org.aibles.cal_eos_fee.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Little-endian EOS binary writer over a growable {@link ByteBuffer}.
+ * <p>
+ * Writers are not thread safe; use {@link #threadLocal()} for a reusable per-thread instance.
+ */
+public final class EOSByteWriter {
+
+    private static final int DEFAULT_CAPACITY = 512;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<EOSByteWriter> THREAD_LOCAL =
+            ThreadLocal.withInitial(() -> new EOSByteWriter(DEFAULT_CAPACITY));
+
+    private ByteBuffer buffer;
+
+    public EOSByteWriter(int initialCapacity) {
+        this(ByteBuffer.allocate(initialCapacity));
+    }
+
+    /**
+     * Writes into a caller-supplied buffer starting at its current position. If the buffer
+     * fills up, the writer continues in a larger heap copy, so always read the result back
+     * through {@link #buffer()}.
+     */
+    public EOSByteWriter(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns this thread's writer, reset and ready for use.
+     */
+    public static EOSByteWriter threadLocal() {
+        EOSByteWriter writer = THREAD_LOCAL.get();
+        if (writer.buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            writer.buffer = ByteBuffer.allocate(DEFAULT_CAPACITY).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return writer.reset();
+    }
+
+    public EOSByteWriter reset() {
+        buffer.clear();
+        return this;
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int position() {
+        return buffer.position();
+    }
+
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[buffer.position()];
+        buffer.duplicate().flip().get(bytes);
+        return bytes;
+    }
+
+    public String toHexString() {
+        if (buffer.hasArray()) {
+            return HexCodec.encode(buffer.array(), buffer.arrayOffset(), buffer.position());
+        }
+        return HexCodec.encode(toByteArray());
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer.put((byte) value);
+    }
+
+    public void writeBytes(byte[] bytes) {
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        buffer.put(bytes, offset, length);
+    }
+
+    public void writeUInt16(int value) {
+        ensureCapacity(2);
+        buffer.putShort((short) value);
+    }
+
+    public void writeUInt32(int value) {
+        ensureCapacity(4);
+        buffer.putInt(value);
+    }
+
+    public void writeUInt64(long value) {
+        ensureCapacity(8);
+        buffer.putLong(value);
+    }
+
+    public void writeVarUInt32(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public void putUInt16(int index, int value) {
+        buffer.putShort(index, (short) value);
+    }
+
+    public void putUInt32(int index, int value) {
+        buffer.putInt(index, value);
+    }
+
+    public void putUInt64(int index, long value) {
+        buffer.putLong(index, value);
+    }
+
+    public void ensureCapacity(int additional) {
+        if (buffer.remaining() >= additional) {
+            return;
+        }
+        int required = buffer.position() + additional;
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(required, buffer.capacity() * 2))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+
+    static int varUInt32Size(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -2,118 +2,93 @@ package org.aibles.cal_eos_fee.util;
 
 import org.aibles.cal_eos_fee.dto.request.*;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.math.BigDecimal;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 public class EOSEncoder {
 
+    private static final BigDecimal ASSET_SCALE = BigDecimal.valueOf(10000);
+
+    // Precision (4) followed by the 7-byte symbol name "EOS" + padding
+    private static final byte[] EOS_SYMBOL = {0x04, 'E', 'O', 'S', 0, 0, 0, 0};
+
     private EOSEncoder() {}
-    
+
     public static String encodeTransferData(TransferData transferData) {
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            
-            // Encode 'from' account (8 bytes)
-            byte[] fromBytes = encodeAccountName(transferData.getFrom());
-            baos.write(fromBytes);
-            
-            // Encode 'to' account (8 bytes)
-            byte[] toBytes = encodeAccountName(transferData.getTo());
-            baos.write(toBytes);
-            
-            // Encode quantity (16 bytes) - convert double to EOS asset format
-            byte[] assetBytes = encodeAsset(transferData.getQuantity());
-            baos.write(assetBytes);
-            
-            // Encode memo (variable length with length prefix)
-            byte[] memoBytes = encodeMemo(transferData.getMemo());
-            baos.write(memoBytes);
-            
-            return toHexString(baos.toByteArray());
-        } catch (IOException e) {
-            throw new RuntimeException("Error encoding transfer data", e);
-        }
+        EOSByteWriter writer = EOSByteWriter.threadLocal();
+        writeTransferData(writer, transferData);
+        return writer.toHexString();
     }
-    
+
     public static String encodeTransaction(Transaction transaction) {
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            
-            // Encode transaction header fields (inherited from TransactionHeader)
-            // Expiration (4 bytes as uint32)
-            baos.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt((int) transaction.getExpiration()).array());
-            
-            // Ref block num (2 bytes as uint16)
-            baos.write(ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN).putShort((short) transaction.getRefBlockNum()).array());
-            
-            // Ref block prefix (4 bytes as uint32)
-            baos.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt((int) transaction.getRefBlockPrefix()).array());
-            
-            // Max net usage words (varint)
-            writeVarint(baos, transaction.getMaxNetUsageWords());
-            
-            // Max cpu usage ms (varint)
-            writeVarint(baos, transaction.getMaxCpuUsageMs());
-            
-            // Delay sec (varint)
-            writeVarint(baos, transaction.getDelaySec());
-            
-            // Context free actions (varint length + array)
-            if (transaction.getContextFreeActions() != null) {
-                writeVarint(baos, transaction.getContextFreeActions().size());
-                for (Action action : transaction.getContextFreeActions()) {
-                    byte[] actionBytes = encodeAction(action);
-                    baos.write(actionBytes);
-                }
-            } else {
-                writeVarint(baos, 0);
-            }
-            
-            // Actions (varint length + array)
-            if (transaction.getActions() != null) {
-                writeVarint(baos, transaction.getActions().size());
-                for (Action action : transaction.getActions()) {
-                    byte[] actionBytes = encodeAction(action);
-                    baos.write(actionBytes);
-                }
-            } else {
-                writeVarint(baos, 0);
-            }
-            
-            // Transaction extensions (varint length + array)
-            if (transaction.getTransactionExtensions() != null) {
-                writeVarint(baos, transaction.getTransactionExtensions().size());
-                for (TransactionExtension extension : transaction.getTransactionExtensions()) {
-                    byte[] extensionBytes = encodeTransactionExtension(extension);
-                    baos.write(extensionBytes);
-                }
-            } else {
-                writeVarint(baos, 0);
+        EOSByteWriter writer = EOSByteWriter.threadLocal();
+        writeTransaction(writer, transaction);
+        return writer.toHexString();
+    }
+
+    public static void writeTransferData(EOSByteWriter out, TransferData transferData) {
+        // Encode 'from' and 'to' accounts (8 bytes each)
+        out.writeUInt64(encodeAccountName(transferData.getFrom()));
+        out.writeUInt64(encodeAccountName(transferData.getTo()));
+
+        // Encode quantity (16 bytes) - amount followed by precision and symbol
+        out.writeUInt64(toAssetAmount(transferData.getQuantity()));
+        out.writeBytes(EOS_SYMBOL);
+
+        // Encode memo (variable length with length prefix)
+        writeString(out, transferData.getMemo());
+    }
+
+    public static void writeTransaction(EOSByteWriter out, Transaction transaction) {
+        // Header fields: expiration (uint32), ref block num (uint16), ref block prefix (uint32)
+        out.writeUInt32((int) transaction.getExpiration());
+        out.writeUInt16(transaction.getRefBlockNum());
+        out.writeUInt32((int) transaction.getRefBlockPrefix());
+
+        // Max net usage words, max cpu usage ms, delay sec (varints)
+        out.writeVarUInt32(transaction.getMaxNetUsageWords());
+        out.writeVarUInt32(transaction.getMaxCpuUsageMs());
+        out.writeVarUInt32(transaction.getDelaySec());
+
+        writeActions(out, transaction.getContextFreeActions());
+        writeActions(out, transaction.getActions());
+
+        List<TransactionExtension> extensions = transaction.getTransactionExtensions();
+        if (extensions == null) {
+            out.writeVarUInt32(0);
+        } else {
+            out.writeVarUInt32(extensions.size());
+            for (TransactionExtension extension : extensions) {
+                out.writeVarUInt32(extension.getType());
+                HexCodec.decodeWithLength(extension.getData(), out);
             }
-            
-            return toHexString(baos.toByteArray());
-        } catch (IOException e) {
-            throw new RuntimeException("Error encoding transaction", e);
         }
     }
-    
-    private static String toHexString(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
+
+    public static void writeAction(EOSByteWriter out, Action action) {
+        out.writeUInt64(encodeAccountName(action.getAccount()));
+        out.writeUInt64(encodeAccountName(action.getName()));
+
+        List<PermissionLevel> authorization = action.getAuthorization();
+        if (authorization == null) {
+            out.writeVarUInt32(0);
+        } else {
+            out.writeVarUInt32(authorization.size());
+            for (PermissionLevel permissionLevel : authorization) {
+                out.writeUInt64(encodeAccountName(permissionLevel.getActor()));
+                out.writeUInt64(encodeAccountName(permissionLevel.getPermission()));
+            }
         }
-        return sb.toString();
+
+        // Action data is already hex encoded; copy it across with its length prefix
+        HexCodec.decodeWithLength(action.getData(), out);
     }
-    
-    private static byte[] encodeAccountName(String accountName) {
+
+    public static long encodeAccountName(String accountName) {
         // EOS account names are encoded as 64-bit integers using base32 encoding
         long encoded = 0;
-        int i = 0;
-        for (; i < accountName.length() && i < 12; i++) {
+        for (int i = 0; i < accountName.length() && i < 12; i++) {
             char c = accountName.charAt(i);
             long charValue;
             if (c >= 'a' && c <= 'z') {
@@ -125,158 +100,80 @@ public class EOSEncoder {
             } else {
                 throw new IllegalArgumentException("Invalid character in account name: " + c);
             }
-            
-            if (i < 12) {
-                encoded |= (charValue & 0x1F) << (64 - 5 * (i + 1));
-            }
+
+            encoded |= (charValue & 0x1F) << (64 - 5 * (i + 1));
         }
-        
-        return ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(encoded).array();
+        return encoded;
     }
-    
-    private static byte[] encodeAsset(Double quantityDouble) {
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            
-            // Convert double to BigDecimal for precise decimal handling
-            BigDecimal quantity = BigDecimal.valueOf(quantityDouble);
-            String symbolPart = "EOS"; // Hardcoded as requested
-            
-            // EOS uses 4 decimal places, so multiply by 10000 to get the integer representation
-            long quantityInt = quantity.multiply(BigDecimal.valueOf(10000)).longValue();
-            
-            // Encode amount (8 bytes, little-endian)
-            byte[] amountBytes = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(quantityInt).array();
-            baos.write(amountBytes);
-            
-            // Encode precision (1 byte) - EOS has 4 decimal places
-            baos.write(0x04);
-            
-            // Encode symbol (7 bytes) - "EOS" + padding
-            byte[] symbolBytes = new byte[7];
-            byte[] symbolName = symbolPart.getBytes(StandardCharsets.UTF_8);
-            System.arraycopy(symbolName, 0, symbolBytes, 0, Math.min(symbolName.length, 7));
-            baos.write(symbolBytes);
-            
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Error encoding EOS asset", e);
-        }
+
+    /**
+     * Converts a quantity to its integer asset amount (EOS uses 4 decimal places).
+     */
+    public static long toAssetAmount(Double quantity) {
+        return BigDecimal.valueOf(quantity).multiply(ASSET_SCALE).longValue();
     }
-    
-    private static byte[] encodeMemo(String memo) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        
-        if (memo == null) {
-            memo = "";
+
+    public static void writeString(EOSByteWriter out, String value) {
+        if (value == null || value.isEmpty()) {
+            out.writeVarUInt32(0);
+            return;
         }
-        
-        byte[] memoBytes = memo.getBytes(StandardCharsets.UTF_8);
-        
-        // Write length as varint (for simplicity, using single byte for short memos)
-        if (memoBytes.length < 128) {
-            baos.write(memoBytes.length);
-        } else {
-            // For longer memos, implement proper varint encoding
-            writeVarint(baos, memoBytes.length);
+
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; ascii && i < length; i++) {
+            ascii = value.charAt(i) < 0x80;
         }
-        
-        // Write memo content
-        baos.write(memoBytes);
-        
-        return baos.toByteArray();
-    }
-    
-    private static void writeVarint(ByteArrayOutputStream baos, int value) {
-        while (value >= 0x80) {
-            baos.write((value & 0x7F) | 0x80);
-            value >>>= 7;
+
+        if (ascii) {
+            out.writeVarUInt32(length);
+            out.ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                out.writeByte(value.charAt(i));
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeVarUInt32(bytes.length);
+            out.writeBytes(bytes);
         }
-        baos.write(value & 0x7F);
     }
-    
-    private static byte[] hexStringToBytes(String hex) {
-        if (hex == null || hex.isEmpty()) {
-            return new byte[0];
-        }
-        
-        // Remove any whitespace or prefix
-        hex = hex.replaceAll("\\s", "").replaceAll("^0x", "");
-        
-        if (hex.length() % 2 != 0) {
-            throw new IllegalArgumentException("Hex string must have even length");
+
+    /**
+     * Returns the number of bytes {@code value} takes in UTF-8, matching {@link String#getBytes}.
+     */
+    public static int utf8Length(String value) {
+        if (value == null) {
+            return 0;
         }
-        
-        byte[] bytes = new byte[hex.length() / 2];
-        for (int i = 0; i < hex.length(); i += 2) {
-            int firstDigit = Character.digit(hex.charAt(i), 16);
-            int secondDigit = Character.digit(hex.charAt(i + 1), 16);
-            
-            if (firstDigit == -1 || secondDigit == -1) {
-                throw new IllegalArgumentException("Invalid hex character in string: " + hex);
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are replaced with '?'
+                length++;
+            } else {
+                length += 3;
             }
-            
-            bytes[i / 2] = (byte) ((firstDigit << 4) + secondDigit);
         }
-        
-        return bytes;
-    }
-    
-    private static byte[] encodePermissionLevel(PermissionLevel permissionLevel) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        
-        // Encode actor account name (8 bytes)
-        byte[] actorBytes = encodeAccountName(permissionLevel.getActor());
-        baos.write(actorBytes);
-        
-        // Encode permission name (8 bytes)
-        byte[] permissionBytes = encodeAccountName(permissionLevel.getPermission());
-        baos.write(permissionBytes);
-        
-        return baos.toByteArray();
+        return length;
     }
-    
-    private static byte[] encodeAction(Action action) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        
-        // Encode account name (8 bytes)
-        byte[] accountBytes = encodeAccountName(action.getAccount());
-        baos.write(accountBytes);
-        
-        // Encode action name (8 bytes)
-        byte[] nameBytes = encodeAccountName(action.getName());
-        baos.write(nameBytes);
-        
-        // Encode authorization list (varint length + encoded permission levels)
-        if (action.getAuthorization() != null) {
-            writeVarint(baos, action.getAuthorization().size());
-            for (PermissionLevel permLevel : action.getAuthorization()) {
-                byte[] permBytes = encodePermissionLevel(permLevel);
-                baos.write(permBytes);
-            }
-        } else {
-            writeVarint(baos, 0);
+
+    private static void writeActions(EOSByteWriter out, List<Action> actions) {
+        if (actions == null) {
+            out.writeVarUInt32(0);
+            return;
+        }
+        out.writeVarUInt32(actions.size());
+        for (Action action : actions) {
+            writeAction(out, action);
         }
-        
-        // Encode data (convert hex string to bytes with length prefix)
-        byte[] dataBytes = hexStringToBytes(action.getData());
-        writeVarint(baos, dataBytes.length);
-        baos.write(dataBytes);
-        
-        return baos.toByteArray();
-    }
-    
-    private static byte[] encodeTransactionExtension(TransactionExtension extension) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        
-        // Encode type (varint)
-        writeVarint(baos, extension.getType());
-        
-        // Encode data (convert hex string to bytes with length prefix)
-        byte[] dataBytes = hexStringToBytes(extension.getData());
-        writeVarint(baos, dataBytes.length);
-        baos.write(dataBytes);
-        
-        return baos.toByteArray();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package org.aibles.cal_eos_fee.util;
+
+import java.util.Arrays;
+
+/**
+ * Table-driven lowercase hex encoding and decoding.
+ */
+public final class HexCodec {
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            VALUES['a' + i] = (byte) (10 + i);
+            VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private HexCodec() {}
+
+    public static String encode(byte[] bytes) {
+        return encode(bytes, 0, bytes.length);
+    }
+
+    public static String encode(byte[] bytes, int offset, int length) {
+        char[] chars = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int b = bytes[offset + i] & 0xFF;
+            chars[i * 2] = DIGITS[b >>> 4];
+            chars[i * 2 + 1] = DIGITS[b & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    public static byte[] decode(String hex) {
+        String clean = normalize(hex);
+        byte[] bytes = new byte[decodedLength(clean)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = decodeByte(clean, i * 2);
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes {@code hex} straight into {@code out}, prefixed with its byte length as a varuint32.
+     */
+    public static void decodeWithLength(String hex, EOSByteWriter out) {
+        String clean = normalize(hex);
+        int length = decodedLength(clean);
+        out.writeVarUInt32(length);
+        out.ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            out.writeByte(decodeByte(clean, i * 2));
+        }
+    }
+
+    /**
+     * Strips whitespace and a leading {@code 0x}; only allocates when there is something to strip.
+     */
+    static String normalize(String hex) {
+        if (hex == null || hex.isEmpty()) {
+            return "";
+        }
+        boolean clean = !hex.startsWith("0x");
+        for (int i = 0; clean && i < hex.length(); i++) {
+            clean = !Character.isWhitespace(hex.charAt(i));
+        }
+        return clean ? hex : hex.replaceAll("\\s", "").replaceAll("^0x", "");
+    }
+
+    private static int decodedLength(String hex) {
+        if (hex.length() % 2 != 0) {
+            throw new IllegalArgumentException("Hex string must have even length");
+        }
+        return hex.length() / 2;
+    }
+
+    private static byte decodeByte(String hex, int index) {
+        int high = digit(hex.charAt(index));
+        int low = digit(hex.charAt(index + 1));
+        if (high == -1 || low == -1) {
+            throw new IllegalArgumentException("Invalid hex character in string: " + hex);
+        }
+        return (byte) ((high << 4) + low);
+    }
+
+    private static int digit(char c) {
+        return c < VALUES.length ? VALUES[c] : -1;
+    }
+}
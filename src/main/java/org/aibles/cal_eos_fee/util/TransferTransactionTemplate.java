@@ -0,0 +1,108 @@
+package org.aibles.cal_eos_fee.util;
+
+import org.aibles.cal_eos_fee.dto.request.*;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-encoded packed_trx for a single-action token transfer.
+ * <p>
+ * The skeleton is encoded once per (contract, action, permission). Rendering copies it and
+ * patches only the fields that differ between quotes: the header's expiration and ref block,
+ * the authorizing actor, the transfer's from/to/amount and the memo. The action data length
+ * prefix is re-encoded since its varint width depends on the memo length.
+ */
+public final class TransferTransactionTemplate {
+
+    private static final ConcurrentHashMap<String, TransferTransactionTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    // Offsets into the packed transaction
+    private static final int EXPIRATION_OFFSET = 0;
+    private static final int REF_BLOCK_NUM_OFFSET = 4;
+    private static final int REF_BLOCK_PREFIX_OFFSET = 6;
+    private static final int ACTOR_OFFSET = 32;
+    private static final int DATA_LENGTH_OFFSET = 48;
+    private static final int DATA_OFFSET = 49;
+
+    // Offsets into the action data (from, to, asset amount, asset symbol)
+    private static final int FROM_OFFSET = 0;
+    private static final int TO_OFFSET = 8;
+    private static final int AMOUNT_OFFSET = 16;
+    private static final int FIXED_DATA_LENGTH = 32;
+
+    // Memo length prefix of the empty-memo skeleton, followed by the trailer
+    private static final int TRAILER_OFFSET = DATA_OFFSET + FIXED_DATA_LENGTH + 1;
+
+    private final byte[] skeleton;
+
+    private TransferTransactionTemplate(String account, String actionName, String permission) {
+        TransferData placeholder = new TransferData();
+        placeholder.setFrom("");
+        placeholder.setTo("");
+        placeholder.setQuantity(0.0);
+        placeholder.setMemo("");
+
+        PermissionLevel permissionLevel = new PermissionLevel();
+        permissionLevel.setActor("");
+        permissionLevel.setPermission(permission);
+
+        Action action = new Action();
+        action.setAccount(account);
+        action.setName(actionName);
+        action.setAuthorization(List.of(permissionLevel));
+        action.setData(EOSEncoder.encodeTransferData(placeholder));
+
+        Transaction transaction = new Transaction();
+        transaction.setActions(List.of(action));
+
+        EOSByteWriter writer = new EOSByteWriter(128);
+        EOSEncoder.writeTransaction(writer, transaction);
+        this.skeleton = writer.toByteArray();
+    }
+
+    public static TransferTransactionTemplate of(String account, String actionName, String permission) {
+        return TEMPLATES.computeIfAbsent(account + ":" + actionName + "@" + permission,
+                key -> new TransferTransactionTemplate(account, actionName, permission));
+    }
+
+    /**
+     * Writes the packed transaction for {@code transferData} under {@code header} into {@code out}.
+     * Only headers without net/cpu/delay limits are supported, as produced by
+     * {@link TransactionHeader#fromGetInfoResponse}.
+     */
+    public void write(EOSByteWriter out, TransactionHeader header, TransferData transferData) {
+        if (header.getMaxNetUsageWords() != 0 || header.getMaxCpuUsageMs() != 0 || header.getDelaySec() != 0) {
+            throw new IllegalArgumentException("Transfer template requires a header without usage limits or delay");
+        }
+
+        long from = EOSEncoder.encodeAccountName(transferData.getFrom());
+        long to = EOSEncoder.encodeAccountName(transferData.getTo());
+        long amount = EOSEncoder.toAssetAmount(transferData.getQuantity());
+        String memo = transferData.getMemo();
+        int memoLength = EOSEncoder.utf8Length(memo);
+
+        int start = out.position();
+        out.writeBytes(skeleton, 0, DATA_LENGTH_OFFSET);
+        out.putUInt32(start + EXPIRATION_OFFSET, (int) header.getExpiration());
+        out.putUInt16(start + REF_BLOCK_NUM_OFFSET, header.getRefBlockNum());
+        out.putUInt32(start + REF_BLOCK_PREFIX_OFFSET, (int) header.getRefBlockPrefix());
+        out.putUInt64(start + ACTOR_OFFSET, from);
+
+        out.writeVarUInt32(FIXED_DATA_LENGTH + EOSByteWriter.varUInt32Size(memoLength) + memoLength);
+        int dataStart = out.position();
+        out.writeBytes(skeleton, DATA_OFFSET, FIXED_DATA_LENGTH);
+        out.putUInt64(dataStart + FROM_OFFSET, from);
+        out.putUInt64(dataStart + TO_OFFSET, to);
+        out.putUInt64(dataStart + AMOUNT_OFFSET, amount);
+        EOSEncoder.writeString(out, memo);
+
+        out.writeBytes(skeleton, TRAILER_OFFSET, skeleton.length - TRAILER_OFFSET);
+    }
+
+    public String encode(TransactionHeader header, TransferData transferData) {
+        EOSByteWriter writer = EOSByteWriter.threadLocal();
+        write(writer, header, transferData);
+        return writer.toHexString();
+    }
+}
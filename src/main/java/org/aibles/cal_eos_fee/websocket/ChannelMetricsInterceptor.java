@@ -0,0 +1,65 @@
+package org.aibles.cal_eos_fee.websocket;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes the queue depth of a STOMP channel, as {@code websocket.channel.queued}, and its busy
+ * handlers, as {@code websocket.channel.active}, tagged by channel.
+ * <p>
+ * A message becomes one handler task per subscriber; a task counts as queued from the send until
+ * the executor starts it. A send that a later interceptor drops or fails never creates its tasks,
+ * so they are taken back off the count; otherwise the gauge, which admission control sheds on,
+ * would creep up. Tasks an executor rejects run on the sending thread and balance as usual. This
+ * works for the platform pool and virtual threads alike.
+ */
+public class ChannelMetricsInterceptor implements ExecutorChannelInterceptor {
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    public ChannelMetricsInterceptor(MeterRegistry meterRegistry, String channel) {
+        Gauge.builder("websocket.channel.queued", queued, AtomicInteger::get)
+                .description("Handler tasks waiting for a channel executor thread")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active", active, AtomicInteger::get)
+                .description("Handler tasks running on a channel executor")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (channel instanceof AbstractSubscribableChannel subscribable) {
+            queued.addAndGet(subscribable.getSubscribers().size());
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if ((!sent || ex != null) && channel instanceof AbstractSubscribableChannel subscribable) {
+            queued.addAndGet(-subscribable.getSubscribers().size());
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        active.decrementAndGet();
+    }
+}
@@ -0,0 +1,61 @@
+package org.aibles.cal_eos_fee.websocket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.function.Supplier;
+
+/**
+ * STOMP payload encodings. JSON is the default; CBOR and MessagePack carry the same Jackson model
+ * in binary frames.
+ */
+public enum PayloadFormat {
+
+    JSON(MimeTypeUtils.APPLICATION_JSON, JsonFactory::new),
+    CBOR(new MimeType("application", "cbor"), CBORFactory::new),
+    MSGPACK(new MimeType("application", "x-msgpack"), MessagePackFactory::new);
+
+    private final MimeType mimeType;
+    private final Supplier<JsonFactory> factory;
+
+    PayloadFormat(MimeType mimeType, Supplier<JsonFactory> factory) {
+        this.mimeType = mimeType;
+        this.factory = factory;
+    }
+
+    public MimeType mimeType() {
+        return mimeType;
+    }
+
+    /**
+     * The format for a content-type, ignoring parameters such as charset, or null when none matches.
+     */
+    public static PayloadFormat of(MimeType mimeType) {
+        if (mimeType == null) {
+            return null;
+        }
+        for (PayloadFormat format : values()) {
+            if (format.mimeType.equalsTypeAndSubtype(mimeType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A converter that only handles messages whose content-type is this format. Mapper settings match
+     * the default STOMP JSON converter, so every format reads and writes the same fields.
+     */
+    public MappingJackson2MessageConverter converter() {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter(mimeType);
+        converter.setObjectMapper(Jackson2ObjectMapperBuilder.json().factory(factory.get()).build());
+        // Frames without a content-type stay with the default JSON converter
+        converter.setStrictContentTypeMatch(true);
+        return converter;
+    }
+}
@@ -0,0 +1,149 @@
+package org.aibles.cal_eos_fee.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.security.Principal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the payload format each STOMP session wants its replies in.
+ * <p>
+ * A session picks a binary format with an {@code accept} header on CONNECT, or by sending a frame
+ * whose {@code content-type} is {@code application/cbor} or {@code application/x-msgpack}; replies
+ * then follow the format of the session's latest frame. Sessions that never do either get JSON.
+ * <p>
+ * Formats are kept by STOMP session id, for {@code @SendToUser} replies, and by principal name,
+ * for replies pushed through {@link UserResponseSender}.
+ */
+@Component
+public class SessionPayloadFormats implements ChannelInterceptor {
+
+    private static final String ACCEPT_HEADER = "accept";
+
+    private final Map<String, PayloadFormat> bySession = new ConcurrentHashMap<>();
+    private final Map<String, PayloadFormat> byUser = new ConcurrentHashMap<>();
+    private final Map<PayloadFormat, MessageConverter> binaryConverters = new EnumMap<>(PayloadFormat.class);
+
+    public SessionPayloadFormats() {
+        binaryConverters.put(PayloadFormat.CBOR, PayloadFormat.CBOR.converter());
+        binaryConverters.put(PayloadFormat.MSGPACK, PayloadFormat.MSGPACK.converter());
+    }
+
+    /**
+     * Converters to register ahead of the defaults: one that writes replies in the session's format,
+     * then one per binary format for inbound frames that declare it.
+     */
+    public List<MessageConverter> messageConverters() {
+        return List.of(new ReplyConverter(),
+                binaryConverters.get(PayloadFormat.CBOR),
+                binaryConverters.get(PayloadFormat.MSGPACK));
+    }
+
+    public PayloadFormat formatForUser(String user) {
+        return byUser.getOrDefault(user, PayloadFormat.JSON);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(headers);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (messageType == null || sessionId == null) {
+            return message;
+        }
+
+        Principal user = SimpMessageHeaderAccessor.getUser(headers);
+        switch (messageType) {
+            case CONNECT -> update(sessionId, user,
+                    acceptedFormat(NativeMessageHeaderAccessor.getFirstNativeHeader(ACCEPT_HEADER, headers)));
+            case MESSAGE -> update(sessionId, user, PayloadFormat.of(headers.get(MessageHeaders.CONTENT_TYPE, MimeType.class)));
+            case DISCONNECT -> {
+                bySession.remove(sessionId);
+                if (user != null) {
+                    byUser.remove(user.getName());
+                }
+            }
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    private void update(String sessionId, Principal user, PayloadFormat format) {
+        // Most frames keep the format the session already has; only a change writes
+        if (format == null || bySession.getOrDefault(sessionId, PayloadFormat.JSON) == format) {
+            return;
+        }
+        set(bySession, sessionId, format);
+        if (user != null) {
+            set(byUser, user.getName(), format);
+        }
+    }
+
+    private static void set(Map<String, PayloadFormat> formats, String key, PayloadFormat format) {
+        if (format == PayloadFormat.JSON) {
+            formats.remove(key);
+        } else {
+            formats.put(key, format);
+        }
+    }
+
+    private static PayloadFormat acceptedFormat(String accept) {
+        if (accept == null) {
+            return null;
+        }
+        try {
+            for (MimeType mimeType : MimeTypeUtils.parseMimeTypes(accept)) {
+                PayloadFormat format = PayloadFormat.of(mimeType);
+                if (format != null) {
+                    return format;
+                }
+            }
+        } catch (InvalidMimeTypeException e) {
+            // An unreadable accept header leaves the session on JSON
+        }
+        return null;
+    }
+
+    /**
+     * Encodes replies for sessions that negotiated a binary format; for everyone else it declines and
+     * the default JSON converter takes over.
+     */
+    private final class ReplyConverter implements MessageConverter {
+
+        @Override
+        public Object fromMessage(Message<?> message, Class<?> targetClass) {
+            return null;
+        }
+
+        @Override
+        public Message<?> toMessage(Object payload, MessageHeaders headers) {
+            String sessionId = headers != null ? SimpMessageHeaderAccessor.getSessionId(headers) : null;
+            PayloadFormat format = sessionId != null ? bySession.get(sessionId) : null;
+            if (format == null) {
+                return null;
+            }
+            MessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(headers, MessageHeaderAccessor.class);
+            if (accessor == null || !accessor.isMutable()) {
+                return null;
+            }
+            accessor.setContentType(format.mimeType());
+            return binaryConverters.get(format).toMessage(payload, headers);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.aibles.cal_eos_fee.websocket;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts connected STOMP sessions on this instance as {@code websocket.sessions.active}.
+ */
+@Component
+public class StompSessionTracker {
+
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+    public StompSessionTracker(MeterRegistry meterRegistry) {
+        Gauge.builder("websocket.sessions.active", sessions, Set::size)
+                .description("Connected STOMP sessions")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessionId != null) {
+            sessions.add(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        // May be published more than once per session; removing is idempotent
+        sessions.remove(event.getSessionId());
+    }
+}
@@ -0,0 +1,52 @@
+package org.aibles.cal_eos_fee.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aibles.cal_eos_fee.dto.websocket.WebSocketResponse;
+import org.aibles.cal_eos_fee.service.FeePipelineMetrics;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pushes responses to a session's reply queue outside of the {@code @SendToUser} return path.
+ */
+@Component
+@Slf4j
+public class UserResponseSender {
+
+    public static final String RESPONSE_DESTINATION = "/queue/response";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final FeePipelineMetrics metrics;
+    private final SessionPayloadFormats payloadFormats;
+
+    public UserResponseSender(SimpMessagingTemplate messagingTemplate, FeePipelineMetrics metrics,
+                              SessionPayloadFormats payloadFormats) {
+        this.messagingTemplate = messagingTemplate;
+        this.metrics = metrics;
+        this.payloadFormats = payloadFormats;
+    }
+
+    public void send(String sessionId, WebSocketResponse response) {
+        long start = System.nanoTime();
+        try {
+            PayloadFormat format = payloadFormats.formatForUser(sessionId);
+            if (format == PayloadFormat.JSON) {
+                messagingTemplate.convertAndSendToUser(sessionId, RESPONSE_DESTINATION, response);
+            } else {
+                // The content-type picks the matching binary converter
+                SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+                headers.setContentType(format.mimeType());
+                headers.setLeaveMutable(true);
+                messagingTemplate.convertAndSendToUser(sessionId, RESPONSE_DESTINATION, response, headers.getMessageHeaders());
+            }
+        } catch (MessagingException e) {
+            log.error("Failed to send {} response {} to session {}: {}",
+                    response.getType(), response.getRequestId(), sessionId, e.getMessage(), e);
+        } finally {
+            metrics.record(FeePipelineMetrics.Stage.SEND, start);
+        }
+    }
+}
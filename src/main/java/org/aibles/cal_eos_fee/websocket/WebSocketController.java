@@ -3,7 +3,12 @@ package org.aibles.cal_eos_fee.websocket;
 import lombok.extern.slf4j.Slf4j;
 import org.aibles.cal_eos_fee.dto.websocket.WebSocketMessage;
 import org.aibles.cal_eos_fee.dto.websocket.WebSocketResponse;
+import org.aibles.cal_eos_fee.service.AdmissionController;
+import org.aibles.cal_eos_fee.service.AdmissionDecision;
+import org.aibles.cal_eos_fee.service.FeeLane;
+import org.aibles.cal_eos_fee.service.FeePipelineMetrics;
 import org.aibles.cal_eos_fee.service.MessageHandlerService;
+import org.aibles.cal_eos_fee.service.RateLimitDecision;
 import org.aibles.cal_eos_fee.service.RateLimitService;
 import org.aibles.cal_eos_fee.service.SessionManagementService;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -11,6 +16,7 @@ import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
 
 import java.security.Principal;
 
@@ -21,13 +27,25 @@ public class WebSocketController {
     private final MessageHandlerService messageHandlerService;
     private final RateLimitService rateLimitService;
     private final SessionManagementService sessionManagementService;
+    private final UserResponseSender userResponseSender;
+    private final FeePipelineMetrics metrics;
+    private final AdmissionController admissionController;
+    private final FeeLane feeLane;
 
     public WebSocketController(MessageHandlerService messageHandlerService,
                               RateLimitService rateLimitService,
-                              SessionManagementService sessionManagementService) {
+                              SessionManagementService sessionManagementService,
+                              UserResponseSender userResponseSender,
+                              FeePipelineMetrics metrics,
+                              AdmissionController admissionController,
+                              FeeLane feeLane) {
         this.messageHandlerService = messageHandlerService;
         this.rateLimitService = rateLimitService;
         this.sessionManagementService = sessionManagementService;
+        this.userResponseSender = userResponseSender;
+        this.metrics = metrics;
+        this.admissionController = admissionController;
+        this.feeLane = feeLane;
     }
 
     @MessageMapping("/message")
@@ -42,11 +60,32 @@ public class WebSocketController {
         log.debug("Processing message type {} for session {}", message.getType(), sessionId);
 
         try {
+            long start = System.nanoTime();
             sessionManagementService.updateSessionActivity(sessionId);
+            metrics.record(FeePipelineMetrics.Stage.SESSION_UPDATE, start);
 
-            if (!rateLimitService.isAllowed(sessionId, message.getType())) {
+            if (messageHandlerService.isAsync(message.getType())) {
+                // Shed before the rate limit check, so a busy answer costs no Redis call and no quota
+                int weight = messageHandlerService.admissionWeight(message);
+                AdmissionDecision admission = admissionController.tryAdmit(sessionId, weight);
+                if (!admission.isAdmitted()) {
+                    return admission.toErrorResponse(message.getRequestId());
+                }
+
+                // The rest runs on the fee lane; this channel thread moves on to the next frame.
+                // Replies are pushed once the upstream call completes; nothing is sent from here
+                Mono.defer(() -> handleOnFeeLane(message, sessionId))
+                        .subscribeOn(feeLane.scheduler())
+                        .doFinally(signal -> admissionController.release(sessionId, weight))
+                        .subscribe(response -> userResponseSender.send(sessionId, response),
+                                e -> userResponseSender.send(sessionId, toErrorResponse(e, message, sessionId)));
+                return null;
+            }
+
+            RateLimitDecision rateLimit = rateLimitService.check(sessionId, message.getType());
+            if (!rateLimit.isAllowed()) {
                 log.warn("Rate limit exceeded for session {} and message type {}", sessionId, message.getType());
-                return WebSocketResponse.error("Rate limit exceeded", message.getRequestId());
+                return rateLimit.toErrorResponse(message.getRequestId());
             }
 
             return messageHandlerService.handleMessage(message, sessionId);
@@ -56,4 +95,22 @@ public class WebSocketController {
             return WebSocketResponse.error("Internal server error", message.getRequestId());
         }
     }
-}
\ No newline at end of file
+
+    private Mono<WebSocketResponse> handleOnFeeLane(WebSocketMessage message, String sessionId) {
+        RateLimitDecision rateLimit = rateLimitService.check(sessionId, message.getType());
+        if (!rateLimit.isAllowed()) {
+            log.warn("Rate limit exceeded for session {} and message type {}", sessionId, message.getType());
+            return Mono.just(rateLimit.toErrorResponse(message.getRequestId()));
+        }
+        return messageHandlerService.handleMessageAsync(message, sessionId);
+    }
+
+    private WebSocketResponse toErrorResponse(Throwable e, WebSocketMessage message, String sessionId) {
+        if (FeeLane.isRejection(e)) {
+            log.warn("Fee lane full, shedding message from session {}", sessionId);
+            return admissionController.shedFullLane(sessionId).toErrorResponse(message.getRequestId());
+        }
+        log.error("Error processing message for session {}: {}", sessionId, e.getMessage(), e);
+        return WebSocketResponse.error("Internal server error", message.getRequestId());
+    }
+}
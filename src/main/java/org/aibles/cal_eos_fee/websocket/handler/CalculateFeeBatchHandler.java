@@ -0,0 +1,161 @@
+package org.aibles.cal_eos_fee.websocket.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.aibles.cal_eos_fee.dto.request.CalculateFeeBatchRequest;
+import org.aibles.cal_eos_fee.dto.request.TransferData;
+import org.aibles.cal_eos_fee.dto.websocket.BatchItemResult;
+import org.aibles.cal_eos_fee.dto.websocket.MessageType;
+import org.aibles.cal_eos_fee.dto.websocket.WebSocketMessage;
+import org.aibles.cal_eos_fee.dto.websocket.WebSocketResponse;
+import org.aibles.cal_eos_fee.service.Deadline;
+import org.aibles.cal_eos_fee.service.RateLimitDecision;
+import org.aibles.cal_eos_fee.service.RateLimitService;
+import org.aibles.cal_eos_fee.service.TransferKey;
+import org.aibles.cal_eos_fee.websocket.UserResponseSender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handles CALCULATE_FEE_BATCH: validates and encodes every transfer up front, charges the rate
+ * limit once for the whole batch and computes the fees with bounded parallelism.
+ * <p>
+ * Results are either aggregated into one reply ordered by index, or streamed to the session as
+ * each item completes and followed by a summary reply.
+ */
+@Component
+@Slf4j
+public class CalculateFeeBatchHandler {
+
+    private final CalculateFeeHandler calculateFeeHandler;
+    private final RateLimitService rateLimitService;
+    private final UserResponseSender userResponseSender;
+    private final ObjectMapper objectMapper;
+
+    @Value("${websocket.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${websocket.batch.parallelism:16}")
+    private int parallelism;
+
+    public CalculateFeeBatchHandler(CalculateFeeHandler calculateFeeHandler,
+                                    RateLimitService rateLimitService,
+                                    UserResponseSender userResponseSender,
+                                    ObjectMapper objectMapper) {
+        this.calculateFeeHandler = calculateFeeHandler;
+        this.rateLimitService = rateLimitService;
+        this.userResponseSender = userResponseSender;
+        this.objectMapper = objectMapper;
+    }
+
+    public Mono<WebSocketResponse> handle(WebSocketMessage message, String sessionId) {
+        log.debug("Processing CALCULATE_FEE_BATCH request for session {}", sessionId);
+        String requestId = message.getRequestId();
+
+        CalculateFeeBatchRequest batchRequest;
+        try {
+            batchRequest = readBatchRequest(message.getData());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid CALCULATE_FEE_BATCH request from session {}: {}", sessionId, e.getMessage());
+            return Mono.just(WebSocketResponse.error("Invalid request data: " + e.getMessage(), requestId));
+        }
+
+        List<TransferData> transfers = batchRequest.getTransfers();
+        if (transfers == null || transfers.isEmpty()) {
+            return Mono.just(WebSocketResponse.error("Missing transfer data", requestId));
+        }
+        if (transfers.size() > maxBatchSize) {
+            return Mono.just(WebSocketResponse.error("Batch too large: at most " + maxBatchSize + " transfers allowed", requestId));
+        }
+
+        // Validate and encode everything before any upstream call; invalid items fail on their own
+        List<BatchItemResult> rejected = new ArrayList<>();
+        List<Integer> accepted = new ArrayList<>();
+        TransferKey[] keys = new TransferKey[transfers.size()];
+        for (int i = 0; i < transfers.size(); i++) {
+            try {
+                TransferData transferData = transfers.get(i);
+                if (transferData == null) {
+                    throw new CalculateFeeHandler.RejectedRequestException("Missing transfer data");
+                }
+                calculateFeeHandler.validate(transferData, sessionId);
+                keys[i] = TransferKey.of(transferData);
+                accepted.add(i);
+            } catch (Exception e) {
+                rejected.add(BatchItemResult.of(i, calculateFeeHandler.toErrorResponse(e, requestId, sessionId)));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            RateLimitDecision rateLimit = rateLimitService.check(sessionId, MessageType.CALCULATE_FEE, accepted.size());
+            if (!rateLimit.isAllowed()) {
+                log.warn("Rate limit exceeded for session {} by batch of {} transfers", sessionId, accepted.size());
+                return Mono.just(rateLimit.toErrorResponse(requestId));
+            }
+        }
+
+        // One deadline for the whole batch
+        Deadline deadline = calculateFeeHandler.deadlineFor(message);
+        Flux<BatchItemResult> results = Flux.fromIterable(rejected)
+                .concatWith(Flux.fromIterable(accepted)
+                        .flatMap(index -> calculateFeeHandler.calculate(transfers.get(index), keys[index], requestId, sessionId, deadline)
+                                .map(response -> BatchItemResult.of(index, response)), parallelism));
+
+        if (batchRequest.isStream()) {
+            return results
+                    .doOnNext(result -> userResponseSender.send(sessionId, new WebSocketResponse(
+                            MessageType.CALCULATE_FEE_BATCH, result, requestId, result.isSuccess(), result.getError())))
+                    .filter(BatchItemResult::isSuccess)
+                    .count()
+                    .map(succeeded -> WebSocketResponse.success(MessageType.CALCULATE_FEE_BATCH,
+                            summary(transfers.size(), succeeded), requestId));
+        }
+
+        return results
+                .collectSortedList(Comparator.comparingInt(BatchItemResult::getIndex))
+                .map(items -> WebSocketResponse.success(MessageType.CALCULATE_FEE_BATCH, items, requestId));
+    }
+
+    /**
+     * Upstream calls the batch can have running at once, for admission: its transfers, at most
+     * {@code parallelism}. Counted from the raw payload, before it is read.
+     */
+    public int admissionWeight(WebSocketMessage message) {
+        Object data = message.getData();
+        if (data instanceof Map<?, ?> map) {
+            data = map.get("transfers");
+        }
+        int transfers = data instanceof List<?> list ? list.size() : 1;
+        return Math.max(1, Math.min(transfers, parallelism));
+    }
+
+    private CalculateFeeBatchRequest readBatchRequest(Object data) {
+        if (data instanceof List<?>) {
+            // A bare list of transfers is answered with one aggregated reply
+            CalculateFeeBatchRequest batchRequest = new CalculateFeeBatchRequest();
+            batchRequest.setTransfers(objectMapper.convertValue(data,
+                    objectMapper.getTypeFactory().constructCollectionType(List.class, TransferData.class)));
+            return batchRequest;
+        }
+        if (data == null) {
+            return new CalculateFeeBatchRequest();
+        }
+        return objectMapper.convertValue(data, CalculateFeeBatchRequest.class);
+    }
+
+    private static Map<String, Object> summary(int total, long succeeded) {
+        return Map.of(
+                "total", total,
+                "succeeded", succeeded,
+                "failed", total - succeeded,
+                "streamed", true
+        );
+    }
+}
@@ -6,77 +6,248 @@ import org.aibles.cal_eos_fee.dto.request.TransferData;
 import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
 import org.aibles.cal_eos_fee.dto.response.SendTransactionResponseException;
 import org.aibles.cal_eos_fee.dto.response.SendTransactionResponseExceptionStack;
+import org.aibles.cal_eos_fee.dto.websocket.FeeEstimate;
 import org.aibles.cal_eos_fee.dto.websocket.MessageType;
 import org.aibles.cal_eos_fee.dto.websocket.WebSocketMessage;
 import org.aibles.cal_eos_fee.dto.websocket.WebSocketResponse;
 import org.aibles.cal_eos_fee.service.ComputeTransferService;
+import org.aibles.cal_eos_fee.service.Deadline;
+import org.aibles.cal_eos_fee.service.DeadlineExceededException;
+import org.aibles.cal_eos_fee.service.FeeEstimator;
+import org.aibles.cal_eos_fee.service.FeeLane;
+import org.aibles.cal_eos_fee.service.FeePipelineMetrics;
+import org.aibles.cal_eos_fee.service.LatestFeeResults;
+import org.aibles.cal_eos_fee.service.RetryBudget;
+import org.aibles.cal_eos_fee.service.TransferKey;
+import org.aibles.cal_eos_fee.websocket.UserResponseSender;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
 
+/**
+ * Handles CALCULATE_FEE. Every request runs against a {@link Deadline}: the client's
+ * {@code timeoutMs} hint, capped at {@code websocket.request.max-timeout-ms}, or else
+ * {@code websocket.request.timeout-ms}. Calculations run without blocking the caller and retry
+ * transient upstream failures through the {@link RetryBudget}.
+ * <p>
+ * With {@code "estimate": true} the reply is a {@link FeeEstimate}: from the {@link FeeEstimator}
+ * when it is confident, so no compute_transaction is made, otherwise from the node's receipt.
+ * <p>
+ * With {@code "allowStale": true} a request is answered at once from the latest
+ * result for the same transfer, with {@code staleAgeMs} set, and recomputed in the background; a
+ * second CALCULATE_FEE reply with the same requestId is pushed only if the fee changed.
+ */
 @Component
 @Slf4j
 public class CalculateFeeHandler {
 
     private final ComputeTransferService computeTransferService;
     private final ObjectMapper objectMapper;
+    private final FeePipelineMetrics metrics;
+    private final RetryBudget retryBudget;
+    private final FeeLane feeLane;
+    private final FeeEstimator feeEstimator;
+    private final LatestFeeResults latestFeeResults;
+    private final UserResponseSender userResponseSender;
 
-    public CalculateFeeHandler(ComputeTransferService computeTransferService, ObjectMapper objectMapper) {
+    @Value("${eos.client.mode:blocking}")
+    private String eosClientMode;
+
+    @Value("${websocket.request.timeout-ms:5000}")
+    private long defaultTimeoutMs;
+
+    @Value("${websocket.request.max-timeout-ms:15000}")
+    private long maxTimeoutMs;
+
+    public CalculateFeeHandler(ComputeTransferService computeTransferService, ObjectMapper objectMapper,
+                               FeePipelineMetrics metrics, RetryBudget retryBudget, FeeLane feeLane,
+                               FeeEstimator feeEstimator, LatestFeeResults latestFeeResults,
+                               UserResponseSender userResponseSender) {
         this.computeTransferService = computeTransferService;
         this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.retryBudget = retryBudget;
+        this.feeLane = feeLane;
+        this.feeEstimator = feeEstimator;
+        this.latestFeeResults = latestFeeResults;
+        this.userResponseSender = userResponseSender;
     }
 
-    public WebSocketResponse handle(WebSocketMessage message, String sessionId) {
-        log.debug("Processing CALCULATE_FEE request for session {}", sessionId);
+    public Mono<WebSocketResponse> handleAsync(WebSocketMessage message, String sessionId) {
+        log.debug("Processing CALCULATE_FEE request asynchronously for session {}", sessionId);
 
+        TransferData transferData;
+        TransferKey key;
         try {
-            if (message.getData() == null) {
-                log.warn("Missing transfer data in CALCULATE_FEE request from session {}", sessionId);
-                return WebSocketResponse.error("Missing transfer data", message.getRequestId());
-            }
+            transferData = readTransferData(message, sessionId);
+            key = TransferKey.of(transferData);
+        } catch (Exception e) {
+            return Mono.just(toErrorResponse(e, message.getRequestId(), sessionId));
+        }
 
-            TransferData transferData = objectMapper.convertValue(message.getData(), TransferData.class);
-            
-            if (transferData.getFrom() == null || transferData.getTo() == null || transferData.getQuantity() == null) {
-                log.warn("Invalid transfer data in CALCULATE_FEE request from session {}: from={}, to={}, quantity={}", 
-                        sessionId, transferData.getFrom(), transferData.getTo(), transferData.getQuantity());
-                return WebSocketResponse.error("Invalid transfer data: from, to, and quantity are required", message.getRequestId());
+        if (transferData.isAllowStale()) {
+            LatestFeeResults.Result latest = latestFeeResults.get(key);
+            if (latest != null) {
+                return staleWhileRevalidate(transferData, key, latest, message.getRequestId(), sessionId, deadlineFor(message));
             }
+        }
+
+        return calculate(transferData, key, message.getRequestId(), sessionId, deadlineFor(message));
+    }
+
+    public Deadline deadlineFor(WebSocketMessage message) {
+        Long hint = message.getTimeoutMs();
+        return Deadline.after(hint != null && hint > 0 ? Math.min(hint, maxTimeoutMs) : defaultTimeoutMs);
+    }
+
+    /**
+     * Whether fees are computed on the reactive EOS client rather than the blocking one.
+     */
+    public boolean isReactive() {
+        return "reactive".equalsIgnoreCase(eosClientMode);
+    }
+
+    /**
+     * Computes the fee for already validated and encoded transfer data without blocking the caller.
+     * Transient failures are retried while the deadline and the retry budget allow.
+     */
+    Mono<WebSocketResponse> calculate(TransferData transferData, TransferKey key, String requestId, String sessionId,
+                                      Deadline deadline) {
+        WebSocketResponse estimate = estimate(transferData, key, requestId);
+        if (estimate != null) {
+            return Mono.just(estimate);
+        }
+
+        return fetch(transferData, key, deadline)
+                .map(result -> toResponse(result, transferData, requestId, sessionId))
+                .onErrorResume(e -> Mono.just(toErrorResponse(e, requestId, sessionId)));
+    }
+
+    private Mono<SendTransactionResponse> fetch(TransferData transferData, TransferKey key, Deadline deadline) {
+        Mono<SendTransactionResponse> feeResult = isReactive()
+                ? computeTransferService.calculateTransferFeeAsync(key, transferData, deadline)
+                : Mono.fromCallable(() -> computeTransferService.calculateTransferFee(key, transferData, deadline))
+                        // Blocking calls hold a fee lane thread, never a channel or Reactor thread
+                        .subscribeOn(feeLane.scheduler());
+        return retryBudget.retry(feeResult, deadline);
+    }
+
+    /**
+     * Replies with the latest result now and recomputes once it has been sent. The follow-up only
+     * goes out when the receipt differs, or the transaction would now fail; a recompute that cannot
+     * reach the node leaves the stale answer standing.
+     */
+    private Mono<WebSocketResponse> staleWhileRevalidate(TransferData transferData, TransferKey key,
+                                                         LatestFeeResults.Result latest, String requestId,
+                                                         String sessionId, Deadline deadline) {
+        WebSocketResponse stale = toResponse(latest.response(), transferData, requestId, sessionId);
+        stale.setStaleAgeMs(latest.ageMillis());
+
+        return Mono.just(stale).doAfterTerminate(() -> fetch(transferData, key, deadline).subscribe(
+                fresh -> {
+                    if (feeChanged(latest.response(), fresh)) {
+                        userResponseSender.send(sessionId, toResponse(fresh, transferData, requestId, sessionId));
+                    }
+                },
+                e -> log.debug("Revalidating stale fee for session {} failed: {}", sessionId, e.getMessage())));
+    }
+
+    static boolean feeChanged(SendTransactionResponse previous, SendTransactionResponse current) {
+        SendTransactionResponse.Receipt before = receiptOf(previous);
+        SendTransactionResponse.Receipt after = receiptOf(current);
+        if (before == null || after == null) {
+            return before != after;
+        }
+        return before.getCpuUsageUs() != after.getCpuUsageUs() || before.getNetUsageWords() != after.getNetUsageWords();
+    }
+
+    private static SendTransactionResponse.Receipt receiptOf(SendTransactionResponse response) {
+        SendTransactionResponse.Processed processed = response.getProcessed();
+        return processed != null && processed.getException() == null ? processed.getReceipt() : null;
+    }
+
+    private TransferData readTransferData(WebSocketMessage message, String sessionId) {
+        if (message.getData() == null) {
+            log.warn("Missing transfer data in CALCULATE_FEE request from session {}", sessionId);
+            throw new RejectedRequestException("Missing transfer data");
+        }
+
+        long start = System.nanoTime();
+        TransferData transferData = objectMapper.convertValue(message.getData(), TransferData.class);
+        metrics.record(FeePipelineMetrics.Stage.CONVERT, start);
+        validate(transferData, sessionId);
+        return transferData;
+    }
 
-            log.debug("Calculating fee for transfer: {} -> {} amount {} for session {}", 
-                    transferData.getFrom(), transferData.getTo(), transferData.getQuantity(), sessionId);
+    void validate(TransferData transferData, String sessionId) {
+        if (transferData.getFrom() == null || transferData.getTo() == null || transferData.getQuantity() == null) {
+            log.warn("Invalid transfer data in CALCULATE_FEE request from session {}: from={}, to={}, quantity={}", 
+                    sessionId, transferData.getFrom(), transferData.getTo(), transferData.getQuantity());
+            throw new RejectedRequestException("Invalid transfer data: from, to, and quantity are required");
+        }
+
+        log.debug("Calculating fee for transfer: {} -> {} amount {} for session {}", 
+                transferData.getFrom(), transferData.getTo(), transferData.getQuantity(), sessionId);
+    }
+
+    private WebSocketResponse estimate(TransferData transferData, TransferKey key, String requestId) {
+        if (!transferData.isEstimate()) {
+            return null;
+        }
+        FeeEstimate estimate = feeEstimator.estimate(key);
+        return estimate != null ? WebSocketResponse.success(MessageType.CALCULATE_FEE, estimate, requestId) : null;
+    }
 
-            SendTransactionResponse feeResult = computeTransferService.calculateTransferFee(transferData);
+    private WebSocketResponse toResponse(SendTransactionResponse feeResult, TransferData transferData,
+                                         String requestId, String sessionId) {
+        WebSocketResponse response = toResponse(feeResult, requestId, sessionId);
+        if (transferData.isEstimate() && response.isSuccess() && feeResult.getProcessed() != null
+                && feeResult.getProcessed().getReceipt() != null) {
+            response.setData(FeeEstimator.fromReceipt(feeResult.getProcessed().getReceipt()));
+        }
+        return response;
+    }
+
+    private WebSocketResponse toResponse(SendTransactionResponse feeResult, String requestId, String sessionId) {
+        // Check if the transaction was successful or failed
+        if (feeResult.getProcessed() != null) {
+            SendTransactionResponse.Processed processed = feeResult.getProcessed();
             
-            // Check if the transaction was successful or failed
-            if (feeResult.getProcessed() != null) {
-                SendTransactionResponse.Processed processed = feeResult.getProcessed();
-                
-                // Check if transaction failed (has exception and no receipt)
-                if (processed.getException() != null && processed.getReceipt() == null) {
-                    String errorMessage = buildErrorMessage(processed.getException());
-                    log.warn("EOS transaction failed for session {}: {}", sessionId, errorMessage);
-                    return WebSocketResponse.error(errorMessage, message.getRequestId());
-                }
-                
-                // Transaction was successful - has receipt
-                if (processed.getReceipt() != null) {
-                    log.debug("Fee calculation completed successfully for session {}", sessionId);
-                    return WebSocketResponse.success(MessageType.CALCULATE_FEE, feeResult, message.getRequestId());
-                }
+            // Check if transaction failed (has exception and no receipt)
+            if (processed.getException() != null && processed.getReceipt() == null) {
+                String errorMessage = buildErrorMessage(processed.getException());
+                log.warn("EOS transaction failed for session {}: {}", sessionId, errorMessage);
+                return WebSocketResponse.error(errorMessage, requestId);
             }
             
-            // Fallback case - unexpected response structure
-            log.warn("Unexpected EOS response structure for session {}", sessionId);
-            return WebSocketResponse.success(MessageType.CALCULATE_FEE, feeResult, message.getRequestId());
+            // Transaction was successful - has receipt
+            if (processed.getReceipt() != null) {
+                log.debug("Fee calculation completed successfully for session {}", sessionId);
+                return WebSocketResponse.success(MessageType.CALCULATE_FEE, feeResult, requestId);
+            }
+        }
+        
+        // Fallback case - unexpected response structure
+        log.warn("Unexpected EOS response structure for session {}", sessionId);
+        return WebSocketResponse.success(MessageType.CALCULATE_FEE, feeResult, requestId);
+    }
 
-        } catch (IllegalArgumentException e) {
+    WebSocketResponse toErrorResponse(Throwable e, String requestId, String sessionId) {
+        if (e instanceof RejectedRequestException) {
+            return WebSocketResponse.error(e.getMessage(), requestId);
+        }
+        if (e instanceof DeadlineExceededException) {
+            log.warn("CALCULATE_FEE for session {} ran out of time: {}", sessionId, e.getMessage());
+            return WebSocketResponse.error("Deadline exceeded: " + e.getMessage(), requestId);
+        }
+        if (e instanceof IllegalArgumentException) {
             log.warn("Invalid request data for CALCULATE_FEE from session {}: {}", sessionId, e.getMessage());
-            return WebSocketResponse.error("Invalid request data: " + e.getMessage(), message.getRequestId());
-        } catch (Exception e) {
-            log.error("Error calculating fee for session {}: {}", sessionId, e.getMessage(), e);
-            return WebSocketResponse.error("Failed to calculate fee: " + e.getMessage(), message.getRequestId());
+            return WebSocketResponse.error("Invalid request data: " + e.getMessage(), requestId);
         }
+        log.error("Error calculating fee for session {}: {}", sessionId, e.getMessage(), e);
+        return WebSocketResponse.error("Failed to calculate fee: " + e.getMessage(), requestId);
     }
 
     /**
@@ -120,4 +291,13 @@ public class CalculateFeeHandler {
 
         return errorMsg.toString();
     }
+
+    /**
+     * Request problems that are reported to the client verbatim
+     */
+    static class RejectedRequestException extends RuntimeException {
+        RejectedRequestException(String message) {
+            super(message);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+-- Sliding window counter: the previous fixed window is weighted by how much of it still
+-- overlaps the sliding window ending now.
+-- KEYS[1] limiter key
+-- ARGV[1] limit, ARGV[2] window in ms, ARGV[3] permits
+-- ARGV[4] mode: acquire (all permits or none), lease (as many as fit, up to permits) or
+--         release (hand back unused permits)
+-- Returns {permits granted, remaining, retry after in ms (-1 if the request can never fit)}
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local permits = tonumber(ARGV[3])
+local mode = ARGV[4] or 'acquire'
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local index = math.floor(now / window)
+local elapsed = now - index * window
+
+local state = redis.call('HMGET', KEYS[1], 'w', 'c', 'p')
+local stored = tonumber(state[1])
+local current = tonumber(state[2]) or 0
+local previous = tonumber(state[3]) or 0
+if stored == nil or stored < index - 1 then
+    current = 0
+    previous = 0
+elseif stored == index - 1 then
+    previous = current
+    current = 0
+end
+
+local weight = (window - elapsed) / window
+
+if mode == 'release' then
+    if stored == index then
+        current = math.max(0, current - permits)
+    elseif stored == index - 1 then
+        previous = math.max(0, previous - permits)
+    end
+    if stored ~= nil then
+        redis.call('HSET', KEYS[1], 'w', index, 'c', current, 'p', previous)
+        redis.call('PEXPIRE', KEYS[1], window * 2)
+    end
+    return {0, math.max(0, math.floor(limit - previous * weight - current)), 0}
+end
+
+local estimated = previous * weight + current
+local available = math.max(0, math.floor(limit - estimated))
+local granted = 0
+if mode == 'lease' then
+    granted = math.min(permits, available)
+elseif estimated + permits <= limit then
+    granted = permits
+end
+
+if granted > 0 then
+    current = current + granted
+    redis.call('HSET', KEYS[1], 'w', index, 'c', current, 'p', previous)
+    redis.call('PEXPIRE', KEYS[1], window * 2)
+    return {granted, math.max(0, math.floor(limit - estimated - granted)), 0}
+end
+
+if mode == 'lease' then
+    permits = 1
+end
+if permits > limit then
+    return {0, available, -1}
+end
+
+-- The previous window's share decays linearly; if that is not enough, wait for the current
+-- count to decay once it becomes the previous window
+local needed = estimated + permits - limit
+local retry
+if previous > 0 and needed <= previous * weight then
+    retry = math.ceil(needed * window / previous)
+elseif current > 0 then
+    retry = (window - elapsed) + math.ceil((current + permits - limit) * window / current)
+else
+    retry = window - elapsed
+end
+return {0, available, retry}
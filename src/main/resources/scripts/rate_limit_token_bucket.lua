@@ -0,0 +1,45 @@
+-- Token bucket holding up to limit tokens, refilled at limit tokens per window.
+-- KEYS[1] limiter key
+-- ARGV[1] limit, ARGV[2] window in ms, ARGV[3] permits
+-- ARGV[4] mode: acquire (all permits or none), lease (as many as fit, up to permits) or
+--         release (hand back unused permits)
+-- Returns {permits granted, remaining, retry after in ms (-1 if the request can never fit)}
+local capacity = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local permits = tonumber(ARGV[3])
+local mode = ARGV[4] or 'acquire'
+local rate = capacity / window
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('HMGET', KEYS[1], 't', 'ts')
+local tokens = tonumber(state[1])
+local refilledAt = tonumber(state[2])
+if tokens == nil or refilledAt == nil then
+    tokens = capacity
+else
+    tokens = math.min(capacity, tokens + math.max(0, now - refilledAt) * rate)
+end
+
+local granted = 0
+local retry = 0
+if mode == 'release' then
+    tokens = math.min(capacity, tokens + permits)
+elseif mode == 'lease' then
+    granted = math.min(permits, math.floor(tokens))
+    if granted == 0 then
+        retry = math.ceil((1 - tokens) / rate)
+    end
+elseif tokens >= permits then
+    granted = permits
+elseif permits > capacity then
+    retry = -1
+else
+    retry = math.ceil((permits - tokens) / rate)
+end
+tokens = tokens - granted
+
+redis.call('HSET', KEYS[1], 't', tostring(tokens), 'ts', now)
+redis.call('PEXPIRE', KEYS[1], window)
+return {granted, math.floor(tokens), retry}
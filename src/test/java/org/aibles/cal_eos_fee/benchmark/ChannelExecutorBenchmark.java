@@ -0,0 +1,85 @@
+package org.aibles.cal_eos_fee.benchmark;
+
+import org.aibles.cal_eos_fee.CalEosFeeApplication;
+import org.aibles.cal_eos_fee.loadtest.LoadGenerator;
+import org.aibles.cal_eos_fee.loadtest.RedisStandIn;
+import org.aibles.cal_eos_fee.simulator.EOSNodeSimulator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compares {@code websocket.executor.mode=platform} with {@code virtual} on the real CALCULATE_FEE
+ * path: STOMP frames through the inbound channel, admission, the {@code FeeLane} and the blocking
+ * EOS client, against an {@link EOSNodeSimulator} that takes {@code UPSTREAM_LATENCY_MS} per
+ * compute_transaction.
+ * <p>
+ * Caching and coalescing are off and every transfer is distinct, so each request costs a round
+ * trip. The rate is past what 64 platform lane threads serve at that latency; requests shed by
+ * admission control count as errors. The peak column is the most compute_transaction calls the node
+ * saw open at once. Load generator, app and node share the JVM, so the machine's
+ * cores bound both modes. Run with {@code mvn test -Pbenchmark -Dtest=ChannelExecutorBenchmark}.
+ */
+@Tag("benchmark")
+class ChannelExecutorBenchmark {
+
+    private static final int SESSIONS = 100;
+    private static final int REQUESTS_PER_SECOND = 2000;
+    private static final int DURATION_SECONDS = 10;
+    private static final int WARMUP_SECONDS = 2;
+    private static final long UPSTREAM_LATENCY_MS = 50;
+    private static final int DISTINCT_TRANSFERS = 1_000_000;
+
+    @Test
+    void compareChannelExecutors() throws Exception {
+        try (RedisStandIn redis = new RedisStandIn();
+             EOSNodeSimulator eosNode = new EOSNodeSimulator()) {
+            eosNode.latency(EOSNodeSimulator.Endpoint.COMPUTE_TRANSACTION,
+                    EOSNodeSimulator.Latency.fixed(UPSTREAM_LATENCY_MS));
+
+            LoadGenerator.Report platform = run("platform", redis, eosNode);
+            int platformPeak = eosNode.maxInFlight(EOSNodeSimulator.Endpoint.COMPUTE_TRANSACTION);
+            eosNode.resetMaxInFlight(EOSNodeSimulator.Endpoint.COMPUTE_TRANSACTION);
+            LoadGenerator.Report virtual = run("virtual", redis, eosNode);
+            int virtualPeak = eosNode.maxInFlight(EOSNodeSimulator.Endpoint.COMPUTE_TRANSACTION);
+
+            System.out.printf("%n%-10s %12s %8s %8s %10s %10s %10s %8s%n",
+                    "mode", "replies/s", "errors", "timeouts", "p50 ms", "p99 ms", "max ms", "peak");
+            print("platform", platform, platformPeak);
+            print("virtual", virtual, virtualPeak);
+        }
+    }
+
+    private LoadGenerator.Report run(String mode, RedisStandIn redis, EOSNodeSimulator eosNode) throws Exception {
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(CalEosFeeApplication.class)
+                // Command line arguments, as defaults would lose to application.properties
+                .run(
+                        "--server.port=0",
+                        "--websocket.broker.mode=simple",
+                        "--websocket.executor.mode=" + mode,
+                        "--spring.redis.host=127.0.0.1",
+                        "--spring.redis.port=" + redis.port(),
+                        "--eos.node.urls=" + eosNode.url(),
+                        "--eos.client.mode=blocking",
+                        "--eos.fee-cache.enabled=false",
+                        "--eos.coalescing.enabled=false",
+                        "--websocket.rate-limit.calculate-fee=10000000");
+        try {
+            String url = "ws://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/ws";
+            LoadGenerator.Settings settings = new LoadGenerator.Settings(url, SESSIONS, REQUESTS_PER_SECOND,
+                    DURATION_SECONDS, WARMUP_SECONDS, 0.0, DISTINCT_TRANSFERS);
+            return new LoadGenerator(settings).run();
+        } finally {
+            app.close();
+        }
+    }
+
+    private static void print(String mode, LoadGenerator.Report report, int peakInFlight) {
+        System.out.printf("%-10s %12.1f %8d %8d %10.2f %10.2f %10.2f %8d%n", mode, report.throughputPerSecond(),
+                report.errors(), report.timedOut(),
+                report.latencyMicros().getValueAtPercentile(50) / 1000.0,
+                report.latencyMicros().getValueAtPercentile(99) / 1000.0,
+                report.latencyMicros().getMaxValue() / 1000.0, peakInFlight);
+    }
+}
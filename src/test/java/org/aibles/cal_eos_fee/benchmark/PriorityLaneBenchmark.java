@@ -0,0 +1,130 @@
+package org.aibles.cal_eos_fee.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.aibles.cal_eos_fee.service.FeeLane;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * PING latency on the inbound channel while CALCULATE_FEE arrives faster than it can be served,
+ * with fee work run on the channel threads as before and handed to the {@link FeeLane} as now.
+ * <p>
+ * PINGs are answered inline in both cases; fee calls block for a stand-in upstream round trip.
+ * Latency runs from the moment a PING was due, so a stalled channel shows in the percentiles.
+ * Run with {@code mvn test -Pbenchmark -Dtest=PriorityLaneBenchmark}.
+ */
+@Tag("benchmark")
+class PriorityLaneBenchmark {
+
+    private static final int DURATION_SECONDS = 5;
+    private static final int PINGS_PER_SECOND = 200;
+    private static final int FEES_PER_SECOND = 1000;
+    private static final long UPSTREAM_LATENCY_MS = 50;
+    private static final int FEE_LANE_THREADS = 16;
+    private static final int FEE_LANE_QUEUE = 200;
+
+    private enum Mode { SHARED, LANES }
+
+    private record Frame(boolean ping, long dueNanos) {
+    }
+
+    @Test
+    void pingLatencyWhileTheFeeLaneIsSaturated() throws InterruptedException {
+        Result idle = run(Mode.LANES, 0);
+        Result shared = run(Mode.SHARED, FEES_PER_SECOND);
+        Result lanes = run(Mode.LANES, FEES_PER_SECOND);
+
+        System.out.printf("%n%-14s %10s %10s %10s %10s %10s%n",
+                "scenario", "p50 us", "p99 us", "max us", "fees done", "fees shed");
+        idle.print("idle");
+        shared.print("shared");
+        lanes.print("fee lane");
+    }
+
+    private Result run(Mode mode, int feesPerSecond) throws InterruptedException {
+        // Same sizing Spring applies to clientInboundChannel when no executor is configured
+        ThreadPoolTaskExecutor inbound = new ThreadPoolTaskExecutor();
+        inbound.setCorePoolSize(Runtime.getRuntime().availableProcessors() * 2);
+        inbound.setThreadNamePrefix("bench-inbound-");
+        inbound.initialize();
+        // Bounded platform lane, as the application runs it with websocket.executor.mode=platform
+        FeeLane feeLane = new FeeLane(new SimpleMeterRegistry(), FEE_LANE_THREADS, FEE_LANE_QUEUE, "platform");
+
+        int pings = PINGS_PER_SECOND * DURATION_SECONDS;
+        Histogram pingMicros = new Histogram(TimeUnit.MINUTES.toMicros(5), 3);
+        CountDownLatch pingsDone = new CountDownLatch(pings);
+        LongAdder feesDone = new LongAdder();
+        LongAdder feesShed = new LongAdder();
+
+        ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel(inbound);
+        channel.subscribe(message -> {
+            Frame frame = (Frame) message.getPayload();
+            if (frame.ping()) {
+                synchronized (pingMicros) {
+                    pingMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - frame.dueNanos()));
+                }
+                pingsDone.countDown();
+            } else if (mode == Mode.SHARED) {
+                upstreamCall();
+                feesDone.increment();
+            } else {
+                Mono.fromRunnable(PriorityLaneBenchmark::upstreamCall)
+                        .subscribeOn(feeLane.scheduler())
+                        .subscribe(null, e -> feesShed.increment(), feesDone::increment);
+            }
+        });
+
+        try {
+            Thread feeSender = Thread.ofPlatform().name("bench-fee-sender").start(() ->
+                    send(channel, false, feesPerSecond * DURATION_SECONDS, feesPerSecond));
+            send(channel, true, pings, PINGS_PER_SECOND);
+            feeSender.join();
+            pingsDone.await(5, TimeUnit.MINUTES);
+            return new Result(pingMicros, feesDone.sum(), feesShed.sum());
+        } finally {
+            inbound.shutdown();
+            feeLane.shutdown();
+        }
+    }
+
+    private static void send(ExecutorSubscribableChannel channel, boolean ping, int count, int perSecond) {
+        if (count == 0) {
+            return;
+        }
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / perSecond;
+        long next = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            channel.send(MessageBuilder.withPayload(new Frame(ping, next)).build());
+            next += intervalNanos;
+        }
+    }
+
+    private static void upstreamCall() {
+        try {
+            // Stand-in for a blocking rate limit check and compute_transaction round trip
+            Thread.sleep(UPSTREAM_LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Result(Histogram pingMicros, long feesDone, long feesShed) {
+
+        void print(String scenario) {
+            System.out.printf("%-14s %10d %10d %10d %10d %10d%n", scenario,
+                    pingMicros.getValueAtPercentile(50), pingMicros.getValueAtPercentile(99),
+                    pingMicros.getMaxValue(), feesDone, feesShed);
+        }
+    }
+}
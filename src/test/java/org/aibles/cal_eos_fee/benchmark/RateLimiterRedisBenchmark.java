@@ -0,0 +1,119 @@
+package org.aibles.cal_eos_fee.benchmark;
+
+import org.aibles.cal_eos_fee.service.RedisRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Redis commands and latency per admitted CALCULATE_FEE: the former GET + INCR + EXPIRE check
+ * against the single-script limiter in both modes.
+ * <p>
+ * Needs a local Redis ({@code -Dredis.host}, {@code -Dredis.port}); run with
+ * {@code mvn test -Pbenchmark -Dtest=RateLimiterRedisBenchmark}.
+ */
+@Tag("benchmark")
+class RateLimiterRedisBenchmark {
+
+    private static final int MESSAGES = 20_000;
+    private static final int SESSIONS = 200;
+    private static final int LIMIT = 1_000_000;
+    private static final long WINDOW_MILLIS = 60_000;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate stringRedisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+
+        boolean reachable;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            reachable = "PONG".equals(connection.ping());
+        } catch (Exception e) {
+            reachable = false;
+        }
+        assumeTrue(reachable, "Redis is not reachable");
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void compareRedisOpsPerAdmittedMessage() {
+        RedisTemplate<String, Object> jsonTemplate = new RedisTemplate<>();
+        jsonTemplate.setConnectionFactory(connectionFactory);
+        jsonTemplate.setKeySerializer(new StringRedisSerializer());
+        jsonTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        jsonTemplate.afterPropertiesSet();
+
+        System.out.printf("%n%-16s %12s %14s %10s%n", "limiter", "admitted", "ops/admitted", "us/check");
+        run("get-incr-expire", session -> {
+            String key = "bench:legacy:" + session;
+            Object count = jsonTemplate.opsForValue().get(key);
+            if (count instanceof Number number && number.intValue() + 1 > LIMIT) {
+                return false;
+            }
+            jsonTemplate.opsForValue().increment(key, 1);
+            jsonTemplate.expire(key, Duration.ofMillis(WINDOW_MILLIS));
+            return true;
+        });
+        RedisRateLimiter slidingWindow = new RedisRateLimiter(stringRedisTemplate, "sliding-window");
+        run("sliding-window", session -> slidingWindow.tryAcquire("bench:" + session, LIMIT, WINDOW_MILLIS, 1).isAllowed());
+        RedisRateLimiter tokenBucket = new RedisRateLimiter(stringRedisTemplate, "token-bucket");
+        run("token-bucket", session -> tokenBucket.tryAcquire("bench:" + session, LIMIT, WINDOW_MILLIS, 1).isAllowed());
+    }
+
+    private void run(String name, Check check) {
+        // Warm up connections and load the script before counting
+        for (int i = 0; i < 1_000; i++) {
+            check.allowed("warmup-" + (i % SESSIONS));
+        }
+
+        long commandsBefore = totalCommandsProcessed();
+        int admitted = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            if (check.allowed("session-" + (i % SESSIONS))) {
+                admitted++;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        // The INFO call itself is one command
+        long commands = totalCommandsProcessed() - commandsBefore - 1;
+
+        System.out.printf("%-16s %12d %14.2f %10.1f%n", name, admitted, (double) commands / admitted,
+                TimeUnit.NANOSECONDS.toMicros(elapsedNanos) / (double) MESSAGES);
+    }
+
+    private long totalCommandsProcessed() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Properties stats = connection.serverCommands().info("stats");
+            return Long.parseLong(stats.getProperty("total_commands_processed"));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean allowed(String session);
+    }
+}
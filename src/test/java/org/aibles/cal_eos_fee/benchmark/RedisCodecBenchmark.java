@@ -0,0 +1,117 @@
+package org.aibles.cal_eos_fee.benchmark;
+
+import org.aibles.cal_eos_fee.service.RedisPipeline;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Serialized size of hot-path values with the typed JSON codec and the compact numeric one, and
+ * the latency per session write: JSON SET + EXPIRE, compact SET EX, and compact SET EX pipelined.
+ * <p>
+ * The latency part needs a local Redis ({@code -Dredis.host}, {@code -Dredis.port}); run with
+ * {@code mvn test -Pbenchmark -Dtest=RedisCodecBenchmark}.
+ */
+@Tag("benchmark")
+class RedisCodecBenchmark {
+
+    private static final int WRITES = 20_000;
+    private static final int PIPELINE_BATCH = 100;
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final RedisSerializer<Long> compact = new GenericToStringSerializer<>(Long.class);
+
+    @Test
+    void compareSerializedBytes() {
+        long millis = Instant.parse("2026-10-17T12:34:56.789Z").toEpochMilli();
+
+        System.out.printf("%n%-20s %8s %8s%n", "value", "json", "compact");
+        System.out.printf("%-20s %8d %8d%n", "counter 7", json.serialize(7L).length, compact.serialize(7L).length);
+        System.out.printf("%-20s %8d %8d%n", "counter 1000000", json.serialize(1_000_000L).length,
+                compact.serialize(1_000_000L).length);
+        System.out.printf("%-20s %8d %8d%n", "session timestamp", json.serialize(Instant.ofEpochMilli(millis).toString()).length,
+                compact.serialize(millis).length);
+    }
+
+    @Test
+    void compareLatencyPerSessionWrite() {
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        try {
+            boolean reachable;
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                reachable = "PONG".equals(connection.ping());
+            } catch (Exception e) {
+                reachable = false;
+            }
+            assumeTrue(reachable, "Redis is not reachable");
+
+            RedisTemplate<String, Object> jsonTemplate = new RedisTemplate<>();
+            jsonTemplate.setConnectionFactory(connectionFactory);
+            jsonTemplate.setKeySerializer(new StringRedisSerializer());
+            jsonTemplate.setValueSerializer(json);
+            jsonTemplate.afterPropertiesSet();
+
+            RedisTemplate<String, Long> longTemplate = new RedisTemplate<>();
+            longTemplate.setConnectionFactory(connectionFactory);
+            longTemplate.setKeySerializer(new StringRedisSerializer());
+            longTemplate.setValueSerializer(compact);
+            longTemplate.afterPropertiesSet();
+            RedisPipeline pipeline = new RedisPipeline(longTemplate);
+
+            System.out.printf("%n%-20s %10s%n", "session write", "us/write");
+            run("json set+expire", i -> {
+                String key = "bench:session:json:" + i;
+                jsonTemplate.opsForValue().set(key, Instant.now().toString());
+                jsonTemplate.expire(key, TTL);
+            });
+            run("compact set-ex", i -> longTemplate.opsForValue().set("bench:session:compact:" + i, System.currentTimeMillis(), TTL));
+            run("compact pipelined", i -> {
+                if (i % PIPELINE_BATCH == 0) {
+                    pipeline.execute(commands -> {
+                        for (int j = i; j < i + PIPELINE_BATCH; j++) {
+                            commands.setLong("bench:session:pipelined:" + j, System.currentTimeMillis(), TTL);
+                        }
+                    });
+                }
+            });
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+    private void run(String name, Write write) {
+        // Warm up connections before measuring
+        for (int i = 0; i < 1_000; i++) {
+            write.write(i);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < WRITES; i++) {
+            write.write(i);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        System.out.printf("%-20s %10.1f%n", name, TimeUnit.NANOSECONDS.toMicros(elapsedNanos) / (double) WRITES);
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        void write(int index);
+    }
+}
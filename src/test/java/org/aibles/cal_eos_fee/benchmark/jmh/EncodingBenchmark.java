@@ -0,0 +1,109 @@
+package org.aibles.cal_eos_fee.benchmark.jmh;
+
+import org.aibles.cal_eos_fee.dto.request.Transaction;
+import org.aibles.cal_eos_fee.dto.request.TransactionHeader;
+import org.aibles.cal_eos_fee.dto.request.TransferData;
+import org.aibles.cal_eos_fee.util.EOSEncoder;
+import org.aibles.cal_eos_fee.util.HexCodec;
+import org.aibles.cal_eos_fee.util.TransferTransactionTemplate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction encoding on the CALCULATE_FEE path: transfer data, whole transactions, the
+ * transfer template, account names and hex.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class TransferState {
+
+        @Param({"short", "long"})
+        public String memo;
+
+        TransferData transferData;
+        TransactionHeader header;
+        TransferTransactionTemplate template;
+
+        @Setup
+        public void setUp() {
+            transferData = Payloads.transfer("short".equals(memo) ? Payloads.SHORT_MEMO : Payloads.LONG_MEMO);
+            header = TransactionHeader.fromGetInfoResponse(Payloads.getInfo());
+            template = TransferTransactionTemplate.of("eosio.token", "transfer", "active");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TransactionState {
+
+        @Param({"1", "4"})
+        public int actions;
+
+        Transaction transaction;
+
+        @Setup
+        public void setUp() {
+            transaction = Payloads.transaction(actions);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HexState {
+
+        @Param({"32", "512"})
+        public int bytes;
+
+        byte[] raw;
+        String hex;
+
+        @Setup
+        public void setUp() {
+            raw = new byte[bytes];
+            new Random(42).nextBytes(raw);
+            hex = HexCodec.encode(raw);
+        }
+    }
+
+    private static final String[] ACCOUNT_NAMES = {"alice", "bob12345", "eosio.token", "a.b.c.d.e.f", "zzzzzzzzzzzz"};
+
+    @Benchmark
+    public String encodeTransferData(TransferState state) {
+        return EOSEncoder.encodeTransferData(state.transferData);
+    }
+
+    @Benchmark
+    public String encodeTransferFromTemplate(TransferState state) {
+        return state.template.encode(state.header, state.transferData);
+    }
+
+    @Benchmark
+    public String encodeTransaction(TransactionState state) {
+        return EOSEncoder.encodeTransaction(state.transaction);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(5)
+    public void encodeAccountName(Blackhole blackhole) {
+        for (String name : ACCOUNT_NAMES) {
+            blackhole.consume(EOSEncoder.encodeAccountName(name));
+        }
+    }
+
+    @Benchmark
+    public String hexEncode(HexState state) {
+        return HexCodec.encode(state.raw);
+    }
+
+    @Benchmark
+    public byte[] hexDecode(HexState state) {
+        return HexCodec.decode(state.hex);
+    }
+}
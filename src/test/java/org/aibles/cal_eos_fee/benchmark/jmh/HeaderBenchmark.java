@@ -0,0 +1,31 @@
+package org.aibles.cal_eos_fee.benchmark.jmh;
+
+import org.aibles.cal_eos_fee.dto.request.GetInfoResponse;
+import org.aibles.cal_eos_fee.dto.request.TransactionHeader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deriving the transaction header from get_info: ISO timestamp parsing and block id hex cleanup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeaderBenchmark {
+
+    private GetInfoResponse info;
+
+    @Setup
+    public void setUp() {
+        info = Payloads.getInfo();
+    }
+
+    @Benchmark
+    public TransactionHeader fromGetInfoResponse() {
+        return TransactionHeader.fromGetInfoResponse(info);
+    }
+}
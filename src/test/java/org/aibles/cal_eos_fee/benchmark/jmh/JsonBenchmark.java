@@ -0,0 +1,73 @@
+package org.aibles.cal_eos_fee.benchmark.jmh;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aibles.cal_eos_fee.dto.request.TransferData;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.aibles.cal_eos_fee.dto.websocket.MessageType;
+import org.aibles.cal_eos_fee.dto.websocket.WebSocketMessage;
+import org.aibles.cal_eos_fee.dto.websocket.WebSocketResponse;
+import org.aibles.cal_eos_fee.service.EOSJsonCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson work per fee quote: reading the STOMP message and its transfer data, reading the
+ * compute_transaction reply (fee projection and full trace), and writing the response.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    // Same leniency as the Spring Boot default mapper
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final EOSJsonCodec codec = new EOSJsonCodec(false);
+
+    private byte[] message;
+    private byte[] computeResponse;
+    private WebSocketMessage parsedMessage;
+    private WebSocketResponse response;
+
+    @Setup
+    public void setUp() throws IOException {
+        message = Payloads.CALCULATE_FEE_MESSAGE.getBytes(StandardCharsets.UTF_8);
+        computeResponse = Payloads.COMPUTE_TRANSACTION_RESPONSE.getBytes(StandardCharsets.UTF_8);
+        parsedMessage = objectMapper.readValue(message, WebSocketMessage.class);
+        response = WebSocketResponse.success(MessageType.CALCULATE_FEE,
+                codec.readTransaction(new ByteArrayInputStream(computeResponse), false), "req-7f3a9c21");
+    }
+
+    @Benchmark
+    public WebSocketMessage readMessage() throws IOException {
+        return objectMapper.readValue(message, WebSocketMessage.class);
+    }
+
+    @Benchmark
+    public TransferData convertTransferData() {
+        return objectMapper.convertValue(parsedMessage.getData(), TransferData.class);
+    }
+
+    @Benchmark
+    public SendTransactionResponse readComputeResponseFee() throws IOException {
+        return codec.readTransaction(new ByteArrayInputStream(computeResponse), false);
+    }
+
+    @Benchmark
+    public SendTransactionResponse readComputeResponseFullTrace() throws IOException {
+        return codec.readTransaction(new ByteArrayInputStream(computeResponse), true);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,69 @@
+package org.aibles.cal_eos_fee.benchmark.jmh;
+
+import org.aibles.cal_eos_fee.dto.websocket.MessageType;
+import org.aibles.cal_eos_fee.dto.websocket.WebSocketMessage;
+import org.aibles.cal_eos_fee.dto.websocket.WebSocketResponse;
+import org.aibles.cal_eos_fee.service.EOSJsonCodec;
+import org.aibles.cal_eos_fee.websocket.PayloadFormat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * STOMP payload conversion per format: reading a CALCULATE_FEE message and writing its fee reply
+ * through the same converters the broker uses. Frame sizes are printed once per format.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadFormatBenchmark {
+
+    @Param({"JSON", "CBOR", "MSGPACK"})
+    public PayloadFormat format;
+
+    private MappingJackson2MessageConverter converter;
+    private Message<?> message;
+    private WebSocketResponse response;
+    private MessageHeaders replyHeaders;
+
+    @Setup
+    public void setUp() throws IOException {
+        converter = format.converter();
+        replyHeaders = new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, format.mimeType()));
+
+        // Encode the sample message in this format by way of its JSON tree
+        WebSocketMessage sample = PayloadFormat.JSON.converter().getObjectMapper()
+                .readValue(Payloads.CALCULATE_FEE_MESSAGE, WebSocketMessage.class);
+        byte[] messageBytes = converter.getObjectMapper().writeValueAsBytes(sample);
+        message = MessageBuilder.withPayload(messageBytes)
+                .setHeader(MessageHeaders.CONTENT_TYPE, format.mimeType())
+                .build();
+
+        response = WebSocketResponse.success(MessageType.CALCULATE_FEE, new EOSJsonCodec(false).readTransaction(
+                new ByteArrayInputStream(Payloads.COMPUTE_TRANSACTION_RESPONSE.getBytes(StandardCharsets.UTF_8)), false),
+                "req-7f3a9c21");
+        byte[] replyBytes = (byte[]) writeResponse().getPayload();
+        System.out.printf("%n%s: message %d bytes, fee reply %d bytes%n", format, messageBytes.length, replyBytes.length);
+    }
+
+    @Benchmark
+    public Object readMessage() {
+        return converter.fromMessage(message, WebSocketMessage.class);
+    }
+
+    @Benchmark
+    public Message<?> writeResponse() {
+        return converter.toMessage(response, replyHeaders);
+    }
+}
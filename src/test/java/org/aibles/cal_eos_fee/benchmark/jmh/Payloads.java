@@ -0,0 +1,94 @@
+package org.aibles.cal_eos_fee.benchmark.jmh;
+
+import org.aibles.cal_eos_fee.dto.request.Action;
+import org.aibles.cal_eos_fee.dto.request.GetInfoResponse;
+import org.aibles.cal_eos_fee.dto.request.PermissionLevel;
+import org.aibles.cal_eos_fee.dto.request.Transaction;
+import org.aibles.cal_eos_fee.dto.request.TransactionHeader;
+import org.aibles.cal_eos_fee.dto.request.TransferData;
+import org.aibles.cal_eos_fee.util.EOSEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payloads shaped like production traffic, shared by the JMH benchmarks.
+ */
+final class Payloads {
+
+    static final String SHORT_MEMO = "invoice 4711";
+    // Exchange deposit memos: long, partly non-ASCII
+    static final String LONG_MEMO = ("deposit:7f3a9c21-5b8e-4d02-9a61-0c4e2f8b7d13 ref Überweisung 支付 ").repeat(4);
+
+    static final String CALCULATE_FEE_MESSAGE = """
+            {"type":"CALCULATE_FEE","requestId":"req-7f3a9c21",
+             "data":{"from":"alice.token","to":"bob12345","quantity":12.3456,"memo":"invoice 4711"}}
+            """;
+
+    static final String COMPUTE_TRANSACTION_RESPONSE = """
+            {"transaction_id":"6a5f1b2c","processed":{"id":"6a5f1b2c","block_num":351234567,
+             "block_time":"2026-10-17T12:34:56.500","producer_block_id":null,
+             "receipt":{"status":"executed","cpu_usage_us":187,"net_usage_words":16},
+             "elapsed":187,"net_usage":128,"scheduled":false,
+             "action_traces":[{"action_ordinal":1,"creator_action_ordinal":0,"closest_unnotified_ancestor_action_ordinal":0,
+               "receipt":{"receiver":"eosio.token","act_digest":"b1c2d3","global_sequence":901,"recv_sequence":77,
+                 "auth_sequence":[["alice.token",7]],"code_sequence":3,"abi_sequence":3},
+               "receiver":"eosio.token","act":{"account":"eosio.token","name":"transfer",
+                 "authorization":[{"actor":"alice.token","permission":"active"}],
+                 "data":{"from":"alice.token","to":"bob12345","quantity":"12.3456 EOS","memo":"invoice 4711"},
+                 "hex_data":"0000000000855c34"},
+               "context_free":false,"elapsed":52,"console":"","trx_id":"6a5f1b2c","block_num":351234567,
+               "block_time":"2026-10-17T12:34:56.500","producer_block_id":null,"account_ram_deltas":[],
+               "except":null,"error_code":null,"return_value_hex_data":""}],
+             "account_ram_delta":null,"except":null,"error_code":null,"failed_dtrx_trace":null}}
+            """;
+
+    private Payloads() {}
+
+    static TransferData transfer(String memo) {
+        TransferData transferData = new TransferData();
+        transferData.setFrom("alice.token");
+        transferData.setTo("bob12345");
+        transferData.setQuantity(12.3456);
+        transferData.setMemo(memo);
+        return transferData;
+    }
+
+    static GetInfoResponse getInfo() {
+        GetInfoResponse info = new GetInfoResponse();
+        info.setHeadBlockNum(351234570);
+        info.setHeadBlockTime("2026-10-17T12:34:56.500");
+        info.setLastIrreversibleBlockNum(351234240);
+        info.setLastIrreversibleBlockId("14ef7a4012c1a5b5e6f70819a2b3c4d5e6f708192a3b4c5d6e7f8091a2b3c4d5");
+        return info;
+    }
+
+    /**
+     * A transaction with {@code actions} transfers, alternating short and long memos.
+     */
+    static Transaction transaction(int actions) {
+        TransactionHeader header = TransactionHeader.fromGetInfoResponse(getInfo());
+        Transaction transaction = new Transaction();
+        transaction.setExpiration(header.getExpiration());
+        transaction.setRefBlockNum(header.getRefBlockNum());
+        transaction.setRefBlockPrefix(header.getRefBlockPrefix());
+        transaction.setContextFreeActions(new ArrayList<>());
+        transaction.setTransactionExtensions(new ArrayList<>());
+
+        List<Action> list = new ArrayList<>();
+        for (int i = 0; i < actions; i++) {
+            PermissionLevel permission = new PermissionLevel();
+            permission.setActor("alice.token");
+            permission.setPermission("active");
+
+            Action action = new Action();
+            action.setAccount("eosio.token");
+            action.setName("transfer");
+            action.setAuthorization(List.of(permission));
+            action.setData(EOSEncoder.encodeTransferData(transfer(i % 2 == 0 ? SHORT_MEMO : LONG_MEMO)));
+            list.add(action);
+        }
+        transaction.setActions(list);
+        return transaction;
+    }
+}
@@ -0,0 +1,206 @@
+package org.aibles.cal_eos_fee.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.PrintStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop STOMP load: N sessions on {@code /ws} send a mix of PING and CALCULATE_FEE to
+ * {@code /app/message} at a fixed total rate, and replies on {@code /user/queue/response} are
+ * matched by requestId.
+ * <p>
+ * Latency runs from the moment a message was due, not when it was sent, so a stalled sender still
+ * shows up in the percentiles (no coordinated omission). Messages due during the warmup are sent
+ * but not recorded. Error replies are counted by reason: the admission shed reason, rate limit,
+ * deadline, upstream failure, or the error text up to its first colon.
+ * <p>
+ * Settings come from system properties: {@code load.url} (default {@code ws://localhost:8080/ws}),
+ * {@code load.sessions}, {@code load.rate} (messages per second), {@code load.duration-seconds},
+ * {@code load.warmup-seconds}, {@code load.ping-ratio} and {@code load.distinct-transfers}.
+ */
+public class LoadGenerator {
+
+    public record Settings(String url, int sessions, int ratePerSecond, int durationSeconds, int warmupSeconds,
+                           double pingRatio, int distinctTransfers) {
+
+        public static Settings fromSystemProperties(String defaultUrl) {
+            return new Settings(
+                    System.getProperty("load.url", defaultUrl),
+                    Integer.getInteger("load.sessions", 100),
+                    Integer.getInteger("load.rate", 1_000),
+                    Integer.getInteger("load.duration-seconds", 30),
+                    Integer.getInteger("load.warmup-seconds", 5),
+                    Double.parseDouble(System.getProperty("load.ping-ratio", "0.2")),
+                    Integer.getInteger("load.distinct-transfers", 1_000));
+        }
+    }
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Settings settings;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong replies = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final Map<String, LongAdder> errorsByReason = new ConcurrentHashMap<>();
+    private volatile long recordFromNanos = Long.MAX_VALUE;
+
+    public LoadGenerator(Settings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadGenerator(Settings.fromSystemProperties("ws://localhost:8080/ws")).run().print(System.out);
+    }
+
+    public Report run() throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        client.setInboundMessageSizeLimit(1024 * 1024);
+
+        List<StompSession> sessions = new ArrayList<>(settings.sessions());
+        try {
+            for (int i = 0; i < settings.sessions(); i++) {
+                StompSession session = client.connectAsync(settings.url(), new StompSessionHandlerAdapter() {})
+                        .get(10, TimeUnit.SECONDS);
+                session.subscribe("/user/queue/response", new ReplyHandler());
+                sessions.add(session);
+            }
+
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.ratePerSecond();
+            long start = System.nanoTime();
+            long warmupEnd = start + TimeUnit.SECONDS.toNanos(settings.warmupSeconds());
+            long end = warmupEnd + TimeUnit.SECONDS.toNanos(settings.durationSeconds());
+            recordFromNanos = warmupEnd;
+
+            long sent = 0;
+            for (long due = start; due < end; due += intervalNanos) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                send(sessions.get((int) (sent++ % sessions.size())), due);
+            }
+
+            // Stragglers get a few seconds; whatever is still pending then counts as timed out
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!pending.isEmpty() && System.nanoTime() < drainDeadline) {
+                Thread.sleep(10);
+            }
+            long measuredReplies = replies.get();
+            Histogram histogram = recorder.getIntervalHistogram();
+            Map<String, Long> byReason = new TreeMap<>();
+            errorsByReason.forEach((reason, count) -> byReason.put(reason, count.sum()));
+            return new Report(settings, histogram, measuredReplies, errors.get(), byReason, pending.size());
+        } finally {
+            sessions.forEach(StompSession::disconnect);
+            client.stop();
+        }
+    }
+
+    private void send(StompSession session, long dueNanos) {
+        String requestId = "load-" + sequence.incrementAndGet();
+        Map<String, Object> message = ThreadLocalRandom.current().nextDouble() < settings.pingRatio()
+                ? Map.of("type", "PING", "requestId", requestId)
+                : Map.of("type", "CALCULATE_FEE", "requestId", requestId, "data", transfer());
+        pending.put(requestId, dueNanos);
+        try {
+            session.send("/app/message", message);
+        } catch (RuntimeException e) {
+            pending.remove(requestId);
+            error("SEND_FAILED");
+        }
+    }
+
+    private Map<String, Object> transfer() {
+        // Distinct quantities keep the fee cache and coalescing from answering everything
+        int variant = ThreadLocalRandom.current().nextInt(settings.distinctTransfers());
+        return Map.of("from", "alice.token", "to", "bob12345",
+                "quantity", (variant + 1) / 10_000.0, "memo", "load test " + variant);
+    }
+
+    private void error(String reason) {
+        errors.incrementAndGet();
+        errorsByReason.computeIfAbsent(reason, r -> new LongAdder()).increment();
+    }
+
+    static String reasonOf(Map<?, ?> response) {
+        if (response.get("data") instanceof Map<?, ?> data && data.get("reason") != null) {
+            return String.valueOf(data.get("reason"));
+        }
+        String error = String.valueOf(response.get("error"));
+        if (error.startsWith("Rate limit exceeded")) {
+            return "RATE_LIMIT";
+        }
+        if (error.startsWith("Deadline exceeded")) {
+            return "DEADLINE";
+        }
+        if (error.startsWith("Failed to calculate fee")) {
+            return "UPSTREAM";
+        }
+        int colon = error.indexOf(':');
+        return colon < 0 ? error : error.substring(0, colon);
+    }
+
+    private final class ReplyHandler implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long now = System.nanoTime();
+            Map<?, ?> response = (Map<?, ?>) payload;
+            Long due = pending.remove(String.valueOf(response.get("requestId")));
+            if (due == null || due < recordFromNanos) {
+                return;
+            }
+            replies.incrementAndGet();
+            if (!Boolean.TRUE.equals(response.get("success"))) {
+                error(reasonOf(response));
+            }
+            recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(now - due), MAX_LATENCY_MICROS));
+        }
+    }
+
+    public record Report(Settings settings, Histogram latencyMicros, long replies, long errors,
+                         Map<String, Long> errorsByReason, long timedOut) {
+
+        public double throughputPerSecond() {
+            return (double) replies / settings.durationSeconds();
+        }
+
+        public void print(PrintStream out) {
+            out.printf("%n%d sessions, target %d msg/s for %d s (ping ratio %.2f)%n", settings.sessions(),
+                    settings.ratePerSecond(), settings.durationSeconds(), settings.pingRatio());
+            out.printf("throughput %.1f replies/s, %d errors, %d timed out%n", throughputPerSecond(), errors, timedOut);
+            errorsByReason.forEach((reason, count) -> out.printf("  errors %-20s %d%n", reason, count));
+            out.printf("latency ms  p50 %.2f  p99 %.2f  p999 %.2f  max %.2f%n",
+                    latencyMicros.getValueAtPercentile(50) / 1000.0, latencyMicros.getValueAtPercentile(99) / 1000.0,
+                    latencyMicros.getValueAtPercentile(99.9) / 1000.0, latencyMicros.getMaxValue() / 1000.0);
+            latencyMicros.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.aibles.cal_eos_fee.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loopback RESP2 server answering the commands the app sends, so load tests pay a real Redis
+ * round trip without a Redis install.
+ * <p>
+ * The rate limit scripts are not evaluated: EVAL and EVALSHA grant every request, so the load is
+ * never throttled. Writes are acknowledged and dropped; reads miss.
+ */
+public class RedisStandIn implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RedisStandIn() throws IOException {
+        serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        executor.execute(this::accept);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             InputStream in = new BufferedInputStream(socket.getInputStream());
+             OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            List<String> command;
+            while ((command = readCommand(in)) != null) {
+                out.write(reply(command).getBytes(StandardCharsets.UTF_8));
+                // Pipelined commands are answered together
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private static String reply(List<String> command) {
+        return switch (command.get(0).toUpperCase(Locale.ROOT)) {
+            case "PING" -> "+PONG\r\n";
+            case "CLIENT", "SELECT", "AUTH", "SET", "SETEX" -> "+OK\r\n";
+            case "EXPIRE", "PEXPIRE", "INCR", "INCRBY" -> ":1\r\n";
+            case "DEL" -> ":0\r\n";
+            case "GET" -> "$-1\r\n";
+            case "EVAL", "EVALSHA" -> evalReply(command);
+            // HELLO included: the client falls back to RESP2
+            default -> "-ERR unknown command '" + command.get(0) + "'\r\n";
+        };
+    }
+
+    /**
+     * EVAL script numkeys key... limit window permits mode: grants all permits, charges nothing.
+     */
+    private static String evalReply(List<String> command) {
+        int argv = 3 + Integer.parseInt(command.get(2));
+        long limit = Long.parseLong(command.get(argv));
+        long permits = Long.parseLong(command.get(argv + 2));
+        long granted = "release".equals(command.get(argv + 3)) ? 0 : permits;
+        return "*3\r\n:" + granted + "\r\n:" + limit + "\r\n:0\r\n";
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header == null) {
+            return null;
+        }
+        if (header.charAt(0) != '*') {
+            throw new IOException("Expected a RESP array, got " + header);
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<String> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            byte[] bytes = in.readNBytes(length + 2);
+            args.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        }
+        return args;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\r') {
+                in.read();
+                return line.toString();
+            }
+            line.append((char) b);
+        }
+        return null;
+    }
+}
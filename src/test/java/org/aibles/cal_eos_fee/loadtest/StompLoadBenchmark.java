@@ -0,0 +1,56 @@
+package org.aibles.cal_eos_fee.loadtest;
+
+import org.aibles.cal_eos_fee.CalEosFeeApplication;
+import org.aibles.cal_eos_fee.simulator.EOSNodeSimulator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the app on a random port with stand-ins for Redis, the STOMP broker (the in-memory simple
+ * broker) and the EOS node ({@link EOSNodeSimulator}), then drives it with {@link LoadGenerator}.
+ * Nothing leaves the machine.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=StompLoadBenchmark}; the {@code load.*} properties of
+ * {@link LoadGenerator} shape the load, {@code -Dload.eos-delay-ms} sets the median (log-normal)
+ * compute_transaction latency and {@code -Dload.eos-replay} a recording for the simulator to replay.
+ * To load an already running instance instead, run {@link LoadGenerator#main} with {@code -Dload.url}.
+ */
+@Tag("benchmark")
+class StompLoadBenchmark {
+
+    @Test
+    void loadCalculateFeeOverStomp() throws Exception {
+        try (RedisStandIn redis = new RedisStandIn();
+             EOSNodeSimulator eosNode = new EOSNodeSimulator()) {
+            eosNode.latency(EOSNodeSimulator.Endpoint.COMPUTE_TRANSACTION,
+                    EOSNodeSimulator.Latency.logNormal(Long.getLong("load.eos-delay-ms", 20), 0.4));
+            if (System.getProperty("load.eos-replay") != null) {
+                eosNode.replay(Path.of(System.getProperty("load.eos-replay")));
+            }
+            ConfigurableApplicationContext app = new SpringApplicationBuilder(CalEosFeeApplication.class)
+                    // Command line arguments, as defaults would lose to application.properties
+                    .run(
+                            "--server.port=0",
+                            "--websocket.broker.mode=simple",
+                            "--spring.redis.host=127.0.0.1",
+                            "--spring.redis.port=" + redis.port(),
+                            "--eos.node.urls=" + eosNode.url(),
+                            "--websocket.rate-limit.calculate-fee=10000000");
+            try {
+                String url = "ws://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/ws";
+                LoadGenerator.Report report = new LoadGenerator(LoadGenerator.Settings.fromSystemProperties(url)).run();
+                report.print(System.out);
+
+                assertThat(report.replies()).isGreaterThan(0);
+            } finally {
+                app.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControllerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private volatile double latencyMillis = 50;
+
+    private final AdmissionController controller = new AdmissionController(meterRegistry, true, 100, 10, 2, 3, 500, 1000,
+            queueDepth::get, () -> latencyMillis);
+
+    @Test
+    void capsInFlightPerSession() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(controller.tryAdmit("a").isAdmitted()).isTrue();
+        }
+
+        AdmissionDecision fourth = controller.tryAdmit("a");
+
+        assertThat(fourth.isAdmitted()).isFalse();
+        assertThat(fourth.getReason()).isEqualTo(AdmissionDecision.Reason.SESSION_IN_FLIGHT);
+        assertThat(controller.tryAdmit("b").isAdmitted()).isTrue();
+
+        controller.release("a");
+        assertThat(controller.tryAdmit("a").isAdmitted()).isTrue();
+    }
+
+    @Test
+    void shedsOnceTheInboundQueueIsTooDeep() {
+        queueDepth.set(101);
+
+        AdmissionDecision decision = controller.tryAdmit("a");
+
+        assertThat(decision.getReason()).isEqualTo(AdmissionDecision.Reason.QUEUE_DEPTH);
+        assertThat(decision.getRetryAfterMillis()).isEqualTo(1000);
+        assertThat(controller.inFlight()).isZero();
+        assertThat(meterRegistry.counter("websocket.admission.requests", "outcome", "shed_queue_depth").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void slowUpstreamShrinksTheInFlightLimit() {
+        latencyMillis = 2500;
+        assertThat(controller.inFlightLimit(latencyMillis)).isEqualTo(2);
+
+        assertThat(controller.tryAdmit("a").isAdmitted()).isTrue();
+        assertThat(controller.tryAdmit("b").isAdmitted()).isTrue();
+        AdmissionDecision third = controller.tryAdmit("c");
+
+        assertThat(third.getReason()).isEqualTo(AdmissionDecision.Reason.UPSTREAM_LATENCY);
+        assertThat(third.getRetryAfterMillis()).isEqualTo(2500);
+        assertThat(controller.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void shedsAtTheGlobalInFlightLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(controller.tryAdmit("s" + i).isAdmitted()).isTrue();
+        }
+
+        assertThat(controller.tryAdmit("s10").getReason()).isEqualTo(AdmissionDecision.Reason.IN_FLIGHT);
+
+        controller.release("s0");
+        assertThat(controller.tryAdmit("s10").isAdmitted()).isTrue();
+    }
+
+    @Test
+    void weightedRequestsTakeTheirWeightOfTheInFlightLimit() {
+        assertThat(controller.tryAdmit("a", 8).isAdmitted()).isTrue();
+        assertThat(controller.inFlight()).isEqualTo(8);
+
+        assertThat(controller.tryAdmit("b", 3).getReason()).isEqualTo(AdmissionDecision.Reason.IN_FLIGHT);
+        assertThat(controller.tryAdmit("b", 2).isAdmitted()).isTrue();
+
+        controller.release("a", 8);
+        controller.release("b", 2);
+        assertThat(controller.inFlight()).isZero();
+    }
+
+    @Test
+    void requestHeavierThanTheLimitRunsOnlyAlone() {
+        assertThat(controller.tryAdmit("a", 16).isAdmitted()).isTrue();
+        assertThat(controller.tryAdmit("b").getReason()).isEqualTo(AdmissionDecision.Reason.IN_FLIGHT);
+
+        controller.release("a", 16);
+        assertThat(controller.tryAdmit("b").isAdmitted()).isTrue();
+        assertThat(controller.tryAdmit("a", 16).getReason()).isEqualTo(AdmissionDecision.Reason.IN_FLIGHT);
+    }
+
+    @Test
+    void fullLaneIsCountedUnderItsOwnReason() {
+        assertThat(controller.tryAdmit("a").isAdmitted()).isTrue();
+
+        AdmissionDecision decision = controller.shedFullLane("a");
+        controller.release("a");
+
+        assertThat(decision.getReason()).isEqualTo(AdmissionDecision.Reason.LANE_FULL);
+        assertThat(meterRegistry.counter("websocket.admission.requests", "outcome", "shed_lane_full").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("websocket.admission.requests", "outcome", "shed_queue_depth").count()).isZero();
+        assertThat(controller.inFlight()).isZero();
+    }
+}
@@ -0,0 +1,123 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aibles.cal_eos_fee.dto.request.ComputeTransactionRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EOSApiServiceTest {
+
+    private StubEOSNode first;
+    private StubEOSNode second;
+    private EOSNodePool pool;
+    private EOSApiService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        first = new StubEOSNode(1);
+        second = new StubEOSNode(2);
+        pool = new EOSNodePool(new SimpleMeterRegistry(), List.of(first.url(), second.url()), 0.2, 3, 0.5, 0.95, 20);
+        service = new EOSApiService(pool, new EOSJsonCodec(false), new FeePipelineMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void failsOverAndEjectsUnavailableNode() throws IOException {
+        first.respondWith(503);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.getInfo().getHeadBlockNum()).isEqualTo(2);
+        }
+
+        assertThat(first.requests()).isEqualTo(3);
+        assertThat(pool.ejectedNodes()).hasSize(1);
+        assertThat(pool.ejectedNodes().get(0).getUrl()).isEqualTo(first.url());
+    }
+
+    @Test
+    void probeReinstatesRecoveredNode() throws IOException {
+        first.respondWith(503);
+        for (int i = 0; i < 3; i++) {
+            service.getInfo();
+        }
+        service.probeEjectedNodes();
+        assertThat(pool.ejectedNodes()).hasSize(1);
+
+        first.respondWith(200);
+        service.probeEjectedNodes();
+
+        assertThat(pool.ejectedNodes()).isEmpty();
+    }
+
+    @Test
+    void rejectedTransactionIsNotRetriedElsewhere() {
+        first.respondWith(500);
+        second.respondWith(500);
+
+        assertThatThrownBy(() -> service.computeTransaction(new ComputeTransactionRequest()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Failed to compute transaction");
+
+        assertThat(first.requests() + second.requests()).isEqualTo(1);
+        assertThat(pool.ejectedNodes()).isEmpty();
+    }
+
+    @Test
+    void surfacesUnavailabilityWhenEveryNodeIsDown() {
+        first.respondWith(503);
+        second.respondWith(502);
+
+        assertThatThrownBy(() -> service.getInfo())
+                .isInstanceOf(EOSNodeUnavailableException.class);
+    }
+
+    @Test
+    void deadlineCutsTheCallShortWithoutBlamingTheNode() {
+        first.delay(2000);
+        second.delay(2000);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> service.computeTransaction(new ComputeTransactionRequest(), false, Deadline.after(200)))
+                .isInstanceOf(DeadlineExceededException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isLessThan(1500);
+        assertThat(first.requests() + second.requests()).isEqualTo(1);
+        assertThat(pool.ejectedNodes()).isEmpty();
+    }
+
+    @Test
+    void bodyCutOffMidwayCountsAgainstTheNodeAndFailsOver() throws IOException {
+        first.truncateBody(true);
+
+        assertThat(service.computeTransaction(new ComputeTransactionRequest()).getTransactionId()).isEqualTo("2");
+
+        assertThat(first.requests()).isEqualTo(1);
+        EOSNode firstNode = pool.nodes().stream().filter(node -> node.getUrl().equals(first.url())).findFirst().orElseThrow();
+        assertThat(firstNode.getEwmaErrorRate()).isGreaterThan(0);
+    }
+
+    @Test
+    void deadlinePassingWhileTheBodyIsReadIsADeadlineFailure() {
+        first.delayBody(2000);
+        second.delayBody(2000);
+
+        assertThatThrownBy(() -> service.computeTransaction(new ComputeTransactionRequest(), false, Deadline.after(200)))
+                .isInstanceOf(DeadlineExceededException.class);
+
+        assertThat(first.requests() + second.requests()).isEqualTo(1);
+        assertThat(pool.ejectedNodes()).isEmpty();
+    }
+}
@@ -0,0 +1,84 @@
+package org.aibles.cal_eos_fee.service;
+
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EOSJsonCodecTest {
+
+    private static final String SUCCESS = """
+            {"transaction_id":"abc","processed":{"id":"abc","block_num":42,"block_time":"2024-01-01T00:00:00.000",
+             "producer_block_id":null,"receipt":{"status":"executed","cpu_usage_us":187,"net_usage_words":16},
+             "elapsed":187,"net_usage":128,"scheduled":false,
+             "action_traces":[{"action_ordinal":1,"receipt":{"receiver":"eosio.token","auth_sequence":[["alice",7]]},
+               "act":{"account":"eosio.token","name":"transfer","data":{"from":"alice","to":"bob"}},"inline_traces":[]}],
+             "account_ram_delta":{"account":"alice","delta":128},"except":null,"error_code":null,
+             "failed_dtrx_trace":null}}
+            """;
+
+    private static final String FAILURE = """
+            {"transaction_id":"def","processed":{"id":"def","receipt":null,"elapsed":50,"action_traces":[],
+             "except":{"code":3050003,"name":"eosio_assert_message_exception","message":"eosio_assert_message assertion failure",
+               "stack":[{"context":{"level":"error","file":"cf_system.cpp","line":14,"method":"eosio_assert",
+                 "hostname":"","thread_name":"nodeos","timestamp":"2024-01-01T00:00:00.000"},
+                 "format":"assertion failure with message: ${s}","data":{"s":"overdrawn balance"}}]},
+             "error_code":"10000000000000000000"}}
+            """;
+
+    private final EOSJsonCodec codec = new EOSJsonCodec(false);
+
+    @Test
+    void feeProjectionKeepsFeeFieldsAndSkipsTraces() throws IOException {
+        SendTransactionResponse response = codec.readTransaction(stream(SUCCESS), false);
+        SendTransactionResponse.Processed processed = response.getProcessed();
+
+        assertThat(response.getTransactionId()).isEqualTo("abc");
+        assertThat(processed.getBlockNum()).isEqualTo(42);
+        assertThat(processed.getElapsed()).isEqualTo(187);
+        assertThat(processed.getNetUsage()).isEqualTo(128);
+        assertThat(processed.getReceipt().getCpuUsageUs()).isEqualTo(187);
+        assertThat(processed.getReceipt().getNetUsageWords()).isEqualTo(16);
+        assertThat(processed.getActionTraces()).isNull();
+        assertThat(processed.getAccountRamDelta()).isNull();
+    }
+
+    @Test
+    void feeProjectionKeepsExceptionMessage() throws IOException {
+        SendTransactionResponse.Processed processed = codec.readTransaction(stream(FAILURE), false).getProcessed();
+
+        assertThat(processed.getReceipt()).isNull();
+        assertThat(processed.getException().getCode()).isEqualTo(3050003);
+        assertThat(processed.getException().getMessage()).isEqualTo("eosio_assert_message assertion failure");
+        assertThat(processed.getException().getStack().get(0).getContext()).isNull();
+        assertThat(((Map<?, ?>) processed.getException().getStack().get(0).getData()).get("s")).isEqualTo("overdrawn balance");
+        assertThat(processed.getErrorCode()).isNull();
+    }
+
+    @Test
+    void fullTraceKeepsEverything() throws IOException {
+        SendTransactionResponse.Processed processed = codec.readTransaction(stream(SUCCESS), true).getProcessed();
+
+        assertThat(processed.getActionTraces()).hasSize(1);
+        assertThat(processed.getAccountRamDelta()).isNotNull();
+
+        SendTransactionResponse.Processed failed = new EOSJsonCodec(true).readTransaction(stream(FAILURE), false).getProcessed();
+        assertThat(failed.getException().getStack().get(0).getContext().getThreadName()).isEqualTo("nodeos");
+        assertThat(failed.getErrorCode()).isEqualTo("10000000000000000000");
+    }
+
+    @Test
+    void readsChainInfo() throws IOException {
+        assertThat(codec.readInfo(stream("{\"head_block_num\":7,\"unknown\":{\"nested\":[1,2]}}")).getHeadBlockNum()).isEqualTo(7);
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,124 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EOSNodePoolTest {
+
+    private final EOSNodePool pool = new EOSNodePool(new SimpleMeterRegistry(),
+            List.of("http://a/", " http://b", "http://c"), 0.5, 3, 0.5, 0.9, 5);
+
+    @Test
+    void normalizesUrls() {
+        assertThat(pool.nodes().stream().map(EOSNode::getUrl).toList())
+                .containsExactly("http://a", "http://b", "http://c");
+    }
+
+    @Test
+    void rejectsEmptyNodeList() {
+        assertThatThrownBy(() -> new EOSNodePool(new SimpleMeterRegistry(), List.of(" "), 0.5, 3, 0.5, 0.9, 5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void routesToFastestNode() {
+        EOSNode a = node(0);
+        EOSNode b = node(1);
+        EOSNode c = node(2);
+        pool.recordSuccess(a, 90_000);
+        pool.recordSuccess(b, 10_000);
+        pool.recordSuccess(c, 40_000);
+
+        assertThat(pool.select()).isSameAs(b);
+        assertThat(pool.selectExcluding(b)).isSameAs(c);
+    }
+
+    @Test
+    void unsampledNodesAreTriedFirst() {
+        pool.recordSuccess(node(0), 10_000);
+
+        assertThat(pool.select()).isSameAs(node(1));
+    }
+
+    @Test
+    void errorsOutweighLatency() {
+        EOSNode a = node(0);
+        EOSNode b = node(1);
+        pool.recordSuccess(a, 10_000);
+        pool.recordSuccess(b, 30_000);
+        pool.recordSuccess(node(2), 100_000);
+        pool.recordFailure(a);
+
+        assertThat(pool.select()).isSameAs(b);
+    }
+
+    @Test
+    void ejectsAfterConsecutiveFailuresAndReinstatesOnProbe() {
+        EOSNode a = node(0);
+        pool.recordSuccess(a, 1_000);
+        pool.recordSuccess(node(1), 50_000);
+        pool.recordSuccess(node(2), 50_000);
+
+        pool.recordFailure(a);
+        pool.recordFailure(a);
+        assertThat(a.isEjected()).isFalse();
+        pool.recordFailure(a);
+
+        assertThat(a.isEjected()).isTrue();
+        assertThat(pool.ejectedNodes()).containsExactly(a);
+        assertThat(pool.select()).isNotSameAs(a);
+
+        pool.probeFailed(a);
+        assertThat(a.isEjected()).isTrue();
+
+        pool.probeSucceeded(a, 1_000);
+        assertThat(a.isEjected()).isFalse();
+        assertThat(pool.select()).isSameAs(a);
+    }
+
+    @Test
+    void ejectsOnHighErrorRate() {
+        EOSNode a = node(0);
+        for (int i = 0; i < 20; i++) {
+            pool.recordSuccess(a, 1_000);
+            pool.recordFailure(a);
+            pool.recordFailure(a);
+        }
+
+        assertThat(a.isEjected()).isTrue();
+    }
+
+    @Test
+    void stillSelectsANodeWhenAllAreEjected() {
+        for (EOSNode node : pool.nodes()) {
+            for (int i = 0; i < 3; i++) {
+                pool.recordFailure(node);
+            }
+        }
+
+        assertThat(pool.ejectedNodes()).hasSize(3);
+        assertThat(pool.select()).isNotNull();
+        assertThat(pool.selectExcluding(pool.select())).isNotNull();
+    }
+
+    @Test
+    void hedgeDelayFollowsLatencyPercentile() {
+        EOSNode a = node(0);
+        assertThat(pool.hedgeDelayMillis(a)).isEqualTo(5);
+
+        for (int i = 1; i <= 100; i++) {
+            pool.recordSuccess(a, i * 1_000L);
+        }
+
+        assertThat(pool.hedgeDelayMillis(a)).isEqualTo(90);
+    }
+
+    private EOSNode node(int index) {
+        return pool.nodes().get(index);
+    }
+}
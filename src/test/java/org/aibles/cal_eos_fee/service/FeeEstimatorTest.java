@@ -0,0 +1,88 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aibles.cal_eos_fee.dto.request.TransferData;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponseException;
+import org.aibles.cal_eos_fee.dto.websocket.FeeEstimate;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeeEstimatorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FeeEstimator estimator = new FeeEstimator(meterRegistry, true, 5, 20, 0.2, 100);
+
+    @Test
+    void estimatesOnceAGroupHasEnoughSteadySamples() {
+        for (int i = 0; i < 4; i++) {
+            estimator.observe(key("alice", "bob" + (char) ('a' + i), ""), receipt(200 + i % 2, 13));
+        }
+        assertThat(estimator.estimate(key("alice", "carol", ""))).isNull();
+
+        estimator.observe(key("alice", "dave", ""), receipt(201, 14));
+        FeeEstimate estimate = estimator.estimate(key("alice", "carol", ""));
+
+        assertThat(estimate).isNotNull();
+        assertThat(estimate.getCpuUsageUs()).isBetween(200L, 201L);
+        assertThat(estimate.getNetUsageWords()).isEqualTo(14);
+        assertThat(estimate.getConfidenceUs()).isLessThanOrEqualTo(20);
+        assertThat(estimate.getSamples()).isEqualTo(5);
+        assertThat(estimate.getSource()).isEqualTo(FeeEstimate.SOURCE_MODEL);
+        assertThat(meterRegistry.get("eos.fee_estimate.requests").tag("source", "model").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void noisyGroupIsLeftToTheNode() {
+        for (int i = 0; i < 20; i++) {
+            estimator.observe(key("alice", "bob" + (char) ('a' + i), ""), receipt(i % 2 == 0 ? 150 : 450, 13));
+        }
+
+        assertThat(estimator.estimate(key("alice", "carol", ""))).isNull();
+        assertThat(meterRegistry.get("eos.fee_estimate.requests").tag("source", "node").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void knownPairsAndMemoSizesLearnSeparately() {
+        TransferKey first = key("alice", "bob", "");
+        assertThat(estimator.features(first).newPair()).isTrue();
+
+        estimator.observe(first, receipt(300, 13));
+
+        assertThat(estimator.features(first).newPair()).isFalse();
+        assertThat(estimator.features(key("bob", "alice", "")).newPair()).isTrue();
+        assertThat(estimator.features(key("alice", "bob", "x".repeat(40))).memoBucket())
+                .isNotEqualTo(estimator.features(first).memoBucket());
+    }
+
+    @Test
+    void failedTransactionsAreNotLearned() {
+        SendTransactionResponse failed = receipt(200, 13);
+        failed.getProcessed().setException(new SendTransactionResponseException());
+        estimator.observe(key("alice", "bob", ""), failed);
+
+        assertThat(estimator.features(key("alice", "bob", "")).newPair()).isTrue();
+    }
+
+    private static TransferKey key(String from, String to, String memo) {
+        TransferData transferData = new TransferData();
+        transferData.setFrom(from);
+        transferData.setTo(to);
+        transferData.setQuantity(1.0);
+        transferData.setMemo(memo);
+        return TransferKey.of(transferData);
+    }
+
+    private static SendTransactionResponse receipt(long cpuUsageUs, long netUsageWords) {
+        SendTransactionResponse.Receipt receipt = new SendTransactionResponse.Receipt();
+        receipt.setStatus("executed");
+        receipt.setCpuUsageUs(cpuUsageUs);
+        receipt.setNetUsageWords(netUsageWords);
+        SendTransactionResponse.Processed processed = new SendTransactionResponse.Processed();
+        processed.setReceipt(receipt);
+        SendTransactionResponse response = new SendTransactionResponse();
+        response.setProcessed(processed);
+        return response;
+    }
+}
@@ -0,0 +1,82 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeeLaneTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FeeLane feeLane = new FeeLane(meterRegistry, 1, 1, Thread.ofPlatform().daemon().factory());
+    private final CountDownLatch blocked = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        blocked.countDown();
+        feeLane.shutdown();
+    }
+
+    @Test
+    void rejectsOnceThreadsAndQueueAreTaken() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        Mono.fromRunnable(() -> {
+            running.countDown();
+            await(blocked);
+        }).subscribeOn(feeLane.scheduler()).subscribe();
+        running.await();
+        Mono.empty().subscribeOn(feeLane.scheduler()).subscribe();
+
+        assertThat(feeLane.queued()).isEqualTo(1);
+        assertThatThrownBy(() -> Mono.just("fee").subscribeOn(feeLane.scheduler()).block(Duration.ofSeconds(1)))
+                .satisfies(e -> assertThat(FeeLane.isRejection(e)).isTrue());
+        assertThat(meterRegistry.get("websocket.lane.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void runsTasksOffTheCallingThread() {
+        String thread = Mono.fromSupplier(() -> Thread.currentThread().getName())
+                .subscribeOn(feeLane.scheduler())
+                .block(Duration.ofSeconds(1));
+
+        assertThat(thread).isNotEqualTo(Thread.currentThread().getName());
+        assertThat(FeeLane.isRejection(new IllegalStateException())).isFalse();
+        assertThat(FeeLane.isRejection(new RejectedExecutionException())).isTrue();
+    }
+
+    @Test
+    void virtualLaneRunsEveryTaskAtOnce() throws InterruptedException {
+        FeeLane virtualLane = new FeeLane(new SimpleMeterRegistry(), Thread.ofVirtual().factory());
+        CountDownLatch running = new CountDownLatch(500);
+        try {
+            for (int i = 0; i < 500; i++) {
+                Mono.fromRunnable(() -> {
+                    running.countDown();
+                    await(blocked);
+                }).subscribeOn(virtualLane.scheduler()).subscribe();
+            }
+
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(virtualLane.queued()).isZero();
+        } finally {
+            blocked.countDown();
+            virtualLane.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
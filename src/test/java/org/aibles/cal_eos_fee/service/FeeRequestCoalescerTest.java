@@ -0,0 +1,172 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aibles.cal_eos_fee.dto.request.TransferData;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeeRequestCoalescerTest {
+
+    private static final int CALLERS = 16;
+
+    private final FeeRequestCoalescer coalescer = new FeeRequestCoalescer(new SimpleMeterRegistry(), true, 2000);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @Test
+    void concurrentIdenticalRequestsShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        SendTransactionResponse response = new SendTransactionResponse();
+
+        List<Future<SendTransactionResponse>> results = submitAll(() -> coalescer.execute(key("alice"), () -> {
+            calls.incrementAndGet();
+            release.await();
+            return response;
+        }));
+        awaitFollowers();
+        release.countDown();
+
+        for (Future<SendTransactionResponse> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        }
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(coalescer.inFlightCount()).isEqualTo(0);
+        executor.shutdown();
+    }
+
+    @Test
+    void sharedFailureReachesEveryWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<SendTransactionResponse>> results = submitAll(() -> coalescer.execute(key("alice"), () -> {
+            release.await();
+            throw new IOException("node unavailable");
+        }));
+        awaitFollowers();
+        release.countDown();
+
+        for (Future<SendTransactionResponse> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasMessageContaining("node unavailable");
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void followerTimesOutOnItsOwn() throws Exception {
+        FeeRequestCoalescer shortTimeout = new FeeRequestCoalescer(new SimpleMeterRegistry(), true, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        SendTransactionResponse response = new SendTransactionResponse();
+
+        Future<SendTransactionResponse> leader = executor.submit(() -> shortTimeout.execute(key("alice"), () -> {
+            release.await();
+            return response;
+        }));
+        while (shortTimeout.inFlightCount() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> shortTimeout.execute(key("alice"), () -> response))
+                .isInstanceOf(FollowerTimeoutException.class)
+                .hasMessageContaining("Timed out");
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        executor.shutdown();
+    }
+
+    @Test
+    void leaderDeadlineDoesNotFailAFollowerWithTimeLeft() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<SendTransactionResponse> leader = executor.submit(() ->
+                coalescer.execute(key("alice"), Deadline.after(50), () -> {
+                    release.await();
+                    throw new DeadlineExceededException("Deadline exceeded calling compute_transaction");
+                }));
+        while (coalescer.inFlightCount() == 0) {
+            Thread.onSpinWait();
+        }
+        Future<SendTransactionResponse> follower = executor.submit(() ->
+                coalescer.execute(key("alice"), Deadline.after(5000), SendTransactionResponse::new));
+        Thread.sleep(200);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(DeadlineExceededException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(FollowerTimeoutException.class);
+        executor.shutdown();
+    }
+
+    @Test
+    void leaderDeadlineDoesNotFailAnAsyncFollowerWithTimeLeft() {
+        Sinks.One<SendTransactionResponse> upstream = Sinks.one();
+
+        Mono<SendTransactionResponse> leader = coalescer.executeAsync(key("alice"), Deadline.after(50), upstream::asMono);
+        Mono<SendTransactionResponse> follower = coalescer.executeAsync(key("alice"), Deadline.after(5000),
+                () -> Mono.just(new SendTransactionResponse()));
+        leader.subscribe(r -> { }, e -> { });
+        Mono<SendTransactionResponse> joined = follower.cache();
+        joined.subscribe(r -> { }, e -> { });
+        upstream.tryEmitError(new DeadlineExceededException("Deadline exceeded calling compute_transaction"));
+
+        assertThatThrownBy(() -> joined.block(Duration.ofSeconds(5)))
+                .hasCauseInstanceOf(FollowerTimeoutException.class);
+    }
+
+    @Test
+    void differentTransfersAreNotCoalesced() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.execute(key("alice"), () -> {
+            calls.incrementAndGet();
+            return new SendTransactionResponse();
+        });
+        coalescer.execute(key("carol"), () -> {
+            calls.incrementAndGet();
+            return new SendTransactionResponse();
+        });
+
+        assertThat(calls.get()).isEqualTo(2);
+        executor.shutdown();
+    }
+
+    private List<Future<SendTransactionResponse>> submitAll(Callable<SendTransactionResponse> task) {
+        List<Future<SendTransactionResponse>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(task));
+        }
+        return results;
+    }
+
+    private void awaitFollowers() throws InterruptedException {
+        // Give every caller time to either lead or join the in-flight call before releasing it
+        while (coalescer.inFlightCount() == 0) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(200);
+    }
+
+    private static TransferKey key(String from) {
+        TransferData transferData = new TransferData();
+        transferData.setFrom(from);
+        transferData.setTo("bob");
+        transferData.setQuantity(1.0);
+        transferData.setMemo("same memo");
+        return TransferKey.of(transferData);
+    }
+}
@@ -0,0 +1,77 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aibles.cal_eos_fee.dto.request.TransferData;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeeResultCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final FeeResultCache cache = new FeeResultCache(meterRegistry, true, 2, 3000, clock::get);
+
+    @Test
+    void returnsResultForSameTransferWithinBlock() {
+        SendTransactionResponse response = new SendTransactionResponse();
+        cache.put(key("alice", "bob", 1.0, "memo"), response, 100);
+
+        assertThat(cache.get(key("alice", "bob", 1.0, "memo"), 100)).isSameAs(response);
+        assertThat(cache.get(key("alice", "bob", 1.0, "other"), 100)).isNull();
+        assertThat(cache.get(key("alice", "bob", 1.0001, "memo"), 100)).isNull();
+        assertThat(counter("eos.fee_cache.hits")).isEqualTo(1.0);
+        assertThat(counter("eos.fee_cache.misses")).isEqualTo(2.0);
+    }
+
+    @Test
+    void invalidatesWhenLastIrreversibleBlockAdvances() {
+        cache.put(key("alice", "bob", 1.0, ""), new SendTransactionResponse(), 100);
+
+        assertThat(cache.get(key("alice", "bob", 1.0, ""), 101)).isNull();
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(eviction("block")).isEqualTo(1.0);
+    }
+
+    @Test
+    void expiresAfterTtl() {
+        cache.put(key("alice", "bob", 1.0, ""), new SendTransactionResponse(), 100);
+        clock.addAndGet(3001);
+
+        assertThat(cache.get(key("alice", "bob", 1.0, ""), 100)).isNull();
+        assertThat(eviction("expired")).isEqualTo(1.0);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxSize() {
+        cache.put(key("a", "b", 1.0, ""), new SendTransactionResponse(), 100);
+        cache.put(key("a", "c", 1.0, ""), new SendTransactionResponse(), 100);
+        cache.get(key("a", "b", 1.0, ""), 100);
+        cache.put(key("a", "d", 1.0, ""), new SendTransactionResponse(), 100);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(key("a", "b", 1.0, ""), 100)).isNotNull();
+        assertThat(cache.get(key("a", "c", 1.0, ""), 100)).isNull();
+        assertThat(eviction("size")).isEqualTo(1.0);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private double eviction(String cause) {
+        return meterRegistry.get("eos.fee_cache.evictions").tag("cause", cause).counter().count();
+    }
+
+    private static TransferKey key(String from, String to, double quantity, String memo) {
+        TransferData transferData = new TransferData();
+        transferData.setFrom(from);
+        transferData.setTo(to);
+        transferData.setQuantity(quantity);
+        transferData.setMemo(memo);
+        return TransferKey.of(transferData);
+    }
+}
@@ -0,0 +1,72 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aibles.cal_eos_fee.dto.request.TransferData;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponse;
+import org.aibles.cal_eos_fee.dto.response.SendTransactionResponseException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatestFeeResultsTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final LatestFeeResults latest = new LatestFeeResults(new SimpleMeterRegistry(), 2, 60_000, clock::get);
+
+    @Test
+    void returnsLatestResultWithItsAge() {
+        SendTransactionResponse first = executed(200);
+        SendTransactionResponse second = executed(210);
+        latest.put(key("alice", "bob"), first);
+        clock.addAndGet(500);
+        latest.put(key("alice", "bob"), second);
+        clock.addAndGet(1_500);
+
+        LatestFeeResults.Result result = latest.get(key("alice", "bob"));
+
+        assertThat(result.response()).isSameAs(second);
+        assertThat(result.ageMillis()).isEqualTo(1_500);
+        assertThat(latest.get(key("alice", "carol"))).isNull();
+    }
+
+    @Test
+    void dropsResultsPastMaxAge() {
+        latest.put(key("alice", "bob"), executed(200));
+        clock.addAndGet(60_001);
+
+        assertThat(latest.get(key("alice", "bob"))).isNull();
+        assertThat(latest.size()).isEqualTo(0);
+    }
+
+    @Test
+    void keepsOnlySuccessfulTransactions() {
+        SendTransactionResponse failed = executed(200);
+        failed.getProcessed().setException(new SendTransactionResponseException());
+        latest.put(key("alice", "bob"), failed);
+        latest.put(key("alice", "carol"), new SendTransactionResponse());
+
+        assertThat(latest.size()).isEqualTo(0);
+    }
+
+    private static TransferKey key(String from, String to) {
+        TransferData transferData = new TransferData();
+        transferData.setFrom(from);
+        transferData.setTo(to);
+        transferData.setQuantity(1.0);
+        return TransferKey.of(transferData);
+    }
+
+    private static SendTransactionResponse executed(long cpuUsageUs) {
+        SendTransactionResponse.Receipt receipt = new SendTransactionResponse.Receipt();
+        receipt.setStatus("executed");
+        receipt.setCpuUsageUs(cpuUsageUs);
+        receipt.setNetUsageWords(13);
+        SendTransactionResponse.Processed processed = new SendTransactionResponse.Processed();
+        processed.setReceipt(receipt);
+        SendTransactionResponse response = new SendTransactionResponse();
+        response.setProcessed(processed);
+        return response;
+    }
+}
@@ -0,0 +1,220 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LeasedRateLimiterTest {
+
+    private static final int LIMIT = 20;
+    private static final long WINDOW_MILLIS = 60_000;
+    private static final int BATCH = 5;
+    private static final long TTL_MILLIS = 2_000;
+
+    private final FakeRedis redis = new FakeRedis(LIMIT);
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("redis");
+    private final Queue<Runnable> background = new ArrayDeque<>();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private LeasedRateLimiter newLimiter() {
+        return new LeasedRateLimiter(redis, circuitBreaker, new SimpleMeterRegistry(), BATCH, TTL_MILLIS,
+                background::add, clock::get);
+    }
+
+    @Test
+    void admitsFromLeaseWithoutWaitingOnRedis() {
+        LeasedRateLimiter limiter = newLimiter();
+
+        assertThat(limiter.tryAcquire("s1", LIMIT, WINDOW_MILLIS, 1).isAllowed()).isTrue();
+        assertThat(redis.leaseCalls).isEqualTo(1);
+        assertThat(redis.charged).isEqualTo(BATCH);
+
+        // The rest of the batch is admitted locally; the top-up below half a batch runs in the background
+        for (int i = 0; i < BATCH - 1; i++) {
+            assertThat(limiter.tryAcquire("s1", LIMIT, WINDOW_MILLIS, 1).isAllowed()).isTrue();
+        }
+        assertThat(redis.leaseCalls).isEqualTo(1);
+        assertThat(background).hasSize(1);
+
+        background.poll().run();
+        assertThat(redis.leaseCalls).isEqualTo(2);
+        assertThat(redis.charged).isEqualTo(2 * BATCH);
+    }
+
+    @Test
+    void clusterNeverAdmitsMoreThanRedisHandsOut() {
+        LeasedRateLimiter first = newLimiter();
+        LeasedRateLimiter second = newLimiter();
+
+        int admitted = 0;
+        for (int i = 0; i < 3 * LIMIT; i++) {
+            LeasedRateLimiter instance = i % 2 == 0 ? first : second;
+            if (instance.tryAcquire("s1", LIMIT, WINDOW_MILLIS, 1).isAllowed()) {
+                admitted++;
+            }
+            while (!background.isEmpty()) {
+                background.poll().run();
+            }
+        }
+
+        assertThat(redis.charged).isEqualTo(LIMIT);
+        assertThat(admitted).isBetween(LIMIT - 2 * BATCH, LIMIT);
+    }
+
+    @Test
+    void idleLeasesHandUnusedPermitsBack() {
+        LeasedRateLimiter limiter = newLimiter();
+        limiter.tryAcquire("s1", LIMIT, WINDOW_MILLIS, 1);
+
+        limiter.releaseExpired();
+        assertThat(limiter.leaseCount()).isEqualTo(1);
+
+        clock.addAndGet(TTL_MILLIS);
+        limiter.releaseExpired();
+        background.poll().run();
+
+        assertThat(limiter.leaseCount()).isEqualTo(0);
+        assertThat(redis.charged).isEqualTo(1);
+    }
+
+    @Test
+    void leasesThatWereNeverGrantedAnythingExpire() {
+        LeasedRateLimiter limiter = newLimiter();
+        redis.charged = LIMIT;
+
+        assertThat(limiter.tryAcquire("s1", LIMIT, WINDOW_MILLIS, 1).isAllowed()).isFalse();
+        assertThat(limiter.leaseCount()).isEqualTo(1);
+
+        clock.addAndGet(TTL_MILLIS);
+        limiter.releaseExpired();
+
+        assertThat(limiter.leaseCount()).isEqualTo(0);
+        assertThat(background).isEmpty();
+    }
+
+    @Test
+    void grantLandingOnAnExpiredLeaseIsHandedBack() {
+        LeasedRateLimiter limiter = newLimiter();
+        for (int i = 0; i < BATCH; i++) {
+            limiter.tryAcquire("s1", LIMIT, WINDOW_MILLIS, 1);
+        }
+        background.clear();
+        clock.addAndGet(TTL_MILLIS);
+
+        // The sweep drops the lease while its next grant is on the way
+        redis.duringLease = limiter::releaseExpired;
+        assertThat(limiter.tryAcquire("s1", LIMIT, WINDOW_MILLIS, 1).isAllowed()).isTrue();
+        while (!background.isEmpty()) {
+            background.poll().run();
+        }
+
+        assertThat(redis.charged).isEqualTo(BATCH + 1);
+    }
+
+    @Test
+    void concurrentMissesOnAnEmptyLeaseLeaseOneBatch() throws Exception {
+        LeasedRateLimiter limiter = newLimiter();
+        int callers = 8;
+        CountDownLatch missed = new CountDownLatch(1);
+        // Hold the first grant until every caller has found the lease empty
+        redis.duringLease = () -> await(missed);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<RateLimitDecision>> decisions = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                decisions.add(pool.submit(() -> limiter.tryAcquire("s1", LIMIT, WINDOW_MILLIS, 1)));
+            }
+            Thread.sleep(200);
+            missed.countDown();
+
+            int admitted = 0;
+            for (Future<RateLimitDecision> decision : decisions) {
+                admitted += decision.get(5, TimeUnit.SECONDS).isAllowed() ? 1 : 0;
+            }
+            assertThat(admitted).isEqualTo(callers);
+            assertThat(redis.charged - admitted).isLessThanOrEqualTo(BATCH);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void emptyLeaseFailsFastWhenCircuitIsOpen() {
+        LeasedRateLimiter limiter = newLimiter();
+        limiter.tryAcquire("s1", LIMIT, WINDOW_MILLIS, 1);
+        circuitBreaker.transitionToForcedOpenState();
+
+        // Permits already leased are still spent locally
+        for (int i = 0; i < BATCH - 1; i++) {
+            assertThat(limiter.tryAcquire("s1", LIMIT, WINDOW_MILLIS, 1).isAllowed()).isTrue();
+        }
+        assertThatThrownBy(() -> limiter.tryAcquire("s1", LIMIT, WINDOW_MILLIS, 1))
+                .isInstanceOf(CallNotPermittedException.class);
+    }
+
+    @Test
+    void rejectsPermitsAboveLimit() {
+        RateLimitDecision decision = newLimiter().tryAcquire("s1", LIMIT, WINDOW_MILLIS, LIMIT + 1);
+
+        assertThat(decision.isAllowed()).isFalse();
+        assertThat(decision.getRetryAfterMillis()).isEqualTo(-1);
+        assertThat(redis.leaseCalls).isEqualTo(0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Single fixed window without expiry, enough to account for what was charged.
+     */
+    private static final class FakeRedis extends RedisRateLimiter {
+
+        private final int limit;
+        private int charged;
+        private int leaseCalls;
+        private Runnable duringLease;
+
+        FakeRedis(int limit) {
+            super(null, "sliding-window");
+            this.limit = limit;
+        }
+
+        @Override
+        public synchronized Grant lease(String key, int limit, long windowMillis, int permits) {
+            leaseCalls++;
+            if (duringLease != null) {
+                Runnable hook = duringLease;
+                duringLease = null;
+                hook.run();
+            }
+            int granted = Math.min(permits, this.limit - charged);
+            charged += granted;
+            return new Grant(granted, this.limit - charged, granted < permits ? windowMillis : 0);
+        }
+
+        @Override
+        public synchronized void release(String key, int limit, long windowMillis, int permits) {
+            charged -= permits;
+        }
+    }
+}
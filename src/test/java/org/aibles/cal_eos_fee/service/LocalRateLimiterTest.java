@@ -0,0 +1,135 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimiterTest {
+
+    private static final long WINDOW_MILLIS = 60_000;
+
+    private final AtomicLong clock = new AtomicLong(10 * WINDOW_MILLIS);
+    private final LocalRateLimiter limiter = new LocalRateLimiter(new SimpleMeterRegistry(), WINDOW_MILLIS, 3, clock::get);
+
+    @Test
+    void admitsUpToLimitPerWindow() {
+        assertThat(limiter.tryAcquire("a", 3, 2).getRemaining()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("a", 3, 1).isAllowed()).isTrue();
+
+        clock.addAndGet(15_000);
+        RateLimitDecision denied = limiter.tryAcquire("a", 3, 1);
+        assertThat(denied.isAllowed()).isFalse();
+        assertThat(denied.getRemaining()).isEqualTo(0);
+        assertThat(denied.getRetryAfterMillis()).isEqualTo(45_000);
+
+        clock.addAndGet(45_000);
+        assertThat(limiter.tryAcquire("a", 3, 3).isAllowed()).isTrue();
+    }
+
+    @Test
+    void rejectsPermitsAboveLimit() {
+        RateLimitDecision decision = limiter.tryAcquire("a", 3, 4);
+
+        assertThat(decision.isAllowed()).isFalse();
+        assertThat(decision.getRetryAfterMillis()).isEqualTo(-1);
+    }
+
+    @Test
+    void boundsKeysAndEvictsExpiredOnes() {
+        limiter.tryAcquire("a", 3, 1);
+        limiter.tryAcquire("b", 3, 1);
+        limiter.tryAcquire("c", 3, 1);
+
+        assertThat(limiter.tryAcquire("d", 3, 1).isAllowed()).isFalse();
+        assertThat(limiter.evictExpired()).isEqualTo(0);
+
+        clock.addAndGet(WINDOW_MILLIS);
+        assertThat(limiter.evictExpired()).isEqualTo(3);
+        assertThat(limiter.size()).isEqualTo(0);
+        assertThat(limiter.tryAcquire("d", 3, 1).isAllowed()).isTrue();
+    }
+
+    @Test
+    void neverOvershootsUnderContention() throws Exception {
+        int threads = 16;
+        int keys = 8;
+        int limit = 1_000;
+        LocalRateLimiter contended = new LocalRateLimiter(new SimpleMeterRegistry(), WINDOW_MILLIS, 1_000, clock::get);
+        AtomicInteger[] admitted = new AtomicInteger[keys];
+        for (int i = 0; i < keys; i++) {
+            admitted[i] = new AtomicInteger();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CyclicBarrier start = new CyclicBarrier(threads);
+        AtomicBoolean running = new AtomicBoolean(true);
+        // Sweeps race with the checks the whole time; nothing in the current window may be lost
+        Future<?> sweeper = executor.submit(() -> {
+            while (running.get()) {
+                contended.evictExpired();
+            }
+        });
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 2_000; i++) {
+                    int key = ThreadLocalRandom.current().nextInt(keys);
+                    int permits = 1 + ThreadLocalRandom.current().nextInt(3);
+                    if (contended.tryAcquire("key-" + key, limit, permits).isAllowed()) {
+                        admitted[key].addAndGet(permits);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        running.set(false);
+        sweeper.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        for (int i = 0; i < keys; i++) {
+            // 16 threads x 2000 checks x 2 permits on average spread over 8 keys is far beyond the limit
+            assertThat(admitted[i].get()).isBetween(limit - 2, limit);
+            assertThat(contended.tryAcquire("key-" + i, limit, limit).getRemaining()).isEqualTo(limit - admitted[i].get());
+        }
+    }
+
+    @Test
+    void windowRolloverUnderContentionStartsFresh() throws Exception {
+        int threads = 8;
+        LocalRateLimiter contended = new LocalRateLimiter(new SimpleMeterRegistry(), WINDOW_MILLIS, 10, clock::get);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int round = 0; round < 5; round++) {
+            admitted.set(0);
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (contended.tryAcquire("shared", 100, 1).isAllowed()) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+            assertThat(admitted.get()).isEqualTo(100);
+            clock.addAndGet(WINDOW_MILLIS);
+        }
+        executor.shutdown();
+    }
+}
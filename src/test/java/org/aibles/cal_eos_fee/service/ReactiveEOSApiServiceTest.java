@@ -0,0 +1,72 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aibles.cal_eos_fee.dto.request.GetInfoResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveEOSApiServiceTest {
+
+    private StubEOSNode slow;
+    private StubEOSNode fast;
+    private EOSNodePool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        slow = new StubEOSNode(1);
+        fast = new StubEOSNode(2);
+        pool = new EOSNodePool(new SimpleMeterRegistry(), List.of(slow.url(), fast.url()), 0.2, 3, 0.5, 0.95, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slow.close();
+        fast.close();
+    }
+
+    @Test
+    void hedgedRequestAnswersFromSecondNode() {
+        slow.delay(3000);
+        ReactiveEOSApiService service = service(true);
+
+        long start = System.nanoTime();
+        GetInfoResponse info = service.getInfo().block(Duration.ofSeconds(5));
+
+        assertThat(info.getHeadBlockNum()).isEqualTo(2);
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isLessThan(2500);
+        assertThat(slow.requests()).isEqualTo(1);
+        assertThat(fast.requests()).isEqualTo(1);
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() throws InterruptedException {
+        ReactiveEOSApiService service = service(true);
+
+        assertThat(service.getInfo().block(Duration.ofSeconds(5)).getHeadBlockNum()).isEqualTo(1);
+        Thread.sleep(200);
+
+        assertThat(fast.requests()).isEqualTo(0);
+    }
+
+    @Test
+    void failsOverWithoutHedging() {
+        slow.respondWith(503);
+        ReactiveEOSApiService service = service(false);
+
+        assertThat(service.getInfo().block(Duration.ofSeconds(5)).getHeadBlockNum()).isEqualTo(2);
+        assertThat(slow.requests()).isEqualTo(1);
+    }
+
+    private ReactiveEOSApiService service(boolean hedging) {
+        return new ReactiveEOSApiService(WebClient.builder(), pool, new EOSJsonCodec(false),
+                new FeePipelineMetrics(new SimpleMeterRegistry()), 16, 100, 5000, hedging);
+    }
+}
@@ -0,0 +1,115 @@
+package org.aibles.cal_eos_fee.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryBudgetTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void retriesTransientFailuresUntilSuccess() {
+        RetryBudget budget = budget(3, 20, 10);
+
+        String result = budget.retry(failingUntil(3, new EOSNodeUnavailableException("down")), Deadline.after(5000))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void followerTimeoutIsRetriedWithinTheBudget() {
+        RetryBudget budget = budget(3, 1, 0);
+
+        String result = budget.retry(failingUntil(2, new FollowerTimeoutException("Timed out")), Deadline.after(5000))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls.get()).isEqualTo(2);
+
+        calls.set(0);
+        assertThatThrownBy(() -> budget.retry(failingUntil(2, new FollowerTimeoutException("Timed out")),
+                Deadline.after(5000)).block(Duration.ofSeconds(5)))
+                .hasCauseInstanceOf(FollowerTimeoutException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void deadlineFailuresAreNotRetried() {
+        RetryBudget budget = budget(3, 20, 10);
+
+        assertThatThrownBy(() -> budget.retry(failingUntil(3, new DeadlineExceededException("late")),
+                Deadline.after(5000)).block(Duration.ofSeconds(5)))
+                .hasCauseInstanceOf(DeadlineExceededException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedTransactionsAreNotRetried() {
+        RetryBudget budget = budget(3, 20, 10);
+
+        assertThatThrownBy(() -> budget.retry(failingUntil(3, new IOException("Failed to compute transaction")),
+                Deadline.after(5000)).block(Duration.ofSeconds(5)))
+                .hasMessageContaining("Failed to compute transaction");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void noRetryOnceTheBudgetIsSpent() {
+        RetryBudget budget = budget(3, 1, 0);
+
+        assertThatThrownBy(() -> budget.retry(failingUntil(10, new EOSNodeUnavailableException("down")),
+                Deadline.after(5000)).block(Duration.ofSeconds(5)))
+                .hasCauseInstanceOf(EOSNodeUnavailableException.class);
+        assertThat(calls.get()).isEqualTo(2);
+
+        calls.set(0);
+        assertThatThrownBy(() -> budget.retry(failingUntil(10, new EOSNodeUnavailableException("down")),
+                Deadline.after(5000)).block(Duration.ofSeconds(5)))
+                .hasCauseInstanceOf(EOSNodeUnavailableException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void noRetryWhenTheBackoffWouldOutlastTheDeadline() {
+        RetryBudget budget = new RetryBudget(new SimpleMeterRegistry(), 3, 500, 10, 20, clock::get);
+
+        assertThatThrownBy(() -> budget.retry(failingUntil(3, new EOSNodeUnavailableException("down")),
+                Deadline.after(100)).block(Duration.ofSeconds(5)))
+                .hasCauseInstanceOf(EOSNodeUnavailableException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void bucketRefillsOverTime() {
+        RetryBudget budget = budget(3, 2, 10);
+
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+
+        clock.addAndGet(100);
+
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    private RetryBudget budget(int maxAttempts, int burst, double perSecond) {
+        return new RetryBudget(new SimpleMeterRegistry(), maxAttempts, 2, perSecond, burst, clock::get);
+    }
+
+    private Mono<String> failingUntil(int succeedingCall, Exception failure) {
+        return Mono.defer(() -> calls.incrementAndGet() < succeedingCall ? Mono.error(failure) : Mono.just("ok"));
+    }
+}
@@ -0,0 +1,93 @@
+package org.aibles.cal_eos_fee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionManagementServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(30);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final RecordingSessionService service = new RecordingSessionService(2);
+
+    @Test
+    void coalescesActivityIntoOneWritePerSessionPerFlush() {
+        for (int i = 0; i < 10; i++) {
+            clock.incrementAndGet();
+            service.updateSessionActivity("s1");
+        }
+        service.updateSessionActivity("s2");
+
+        assertThat(service.batches).isEmpty();
+        assertThat(service.flush()).isEqualTo(2);
+        assertThat(service.batches).hasSize(1);
+        assertThat(service.batches.get(0).get("s1")).isEqualTo(clock.get());
+
+        assertThat(service.flush()).isEqualTo(0);
+        assertThat(service.batches).hasSize(1);
+    }
+
+    @Test
+    void splitsFlushIntoBatchesOfMaxSize() {
+        for (int i = 0; i < 5; i++) {
+            service.updateSessionActivity("s" + i);
+        }
+
+        assertThat(service.flush()).isEqualTo(5);
+        assertThat(service.batches).hasSize(3);
+        assertThat(service.batches.get(0)).hasSize(2);
+    }
+
+    @Test
+    void keepsSessionsDirtyWhenRedisFails() {
+        service.updateSessionActivity("s1");
+        service.updateSessionActivity("s2");
+        service.updateSessionActivity("s3");
+        service.failing = true;
+
+        assertThat(service.flush()).isEqualTo(0);
+        assertThat(service.dirtySessionCount()).isEqualTo(3);
+
+        service.failing = false;
+        assertThat(service.flush()).isEqualTo(3);
+        assertThat(service.dirtySessionCount()).isEqualTo(0);
+    }
+
+    @Test
+    void evictsTimedOutLocalSessions() {
+        service.updateSessionActivity("idle");
+        service.flush();
+        clock.addAndGet(TIMEOUT.toMillis() / 2);
+        service.updateSessionActivity("active");
+
+        clock.addAndGet(TIMEOUT.toMillis() / 2);
+        service.flush();
+
+        assertThat(service.localSessionCount()).isEqualTo(1);
+    }
+
+    private final class RecordingSessionService extends SessionManagementService {
+
+        private final List<Map<String, Long>> batches = new ArrayList<>();
+        private boolean failing;
+
+        RecordingSessionService(int flushBatchSize) {
+            super(null, TIMEOUT, flushBatchSize, clock::get);
+        }
+
+        @Override
+        void writeBatch(Map<String, Long> batch) {
+            if (failing) {
+                throw new IllegalStateException("Redis is down");
+            }
+            batches.add(Map.copyOf(batch));
+        }
+    }
+}
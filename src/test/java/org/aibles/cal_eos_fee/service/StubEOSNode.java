@@ -0,0 +1,96 @@
+package org.aibles.cal_eos_fee.service;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP server answering get_info and compute_transaction with a configurable status and delay.
+ * The body can also be held back after the headers, or cut off halfway.
+ */
+class StubEOSNode implements AutoCloseable {
+
+    private final HttpServer server;
+    private final long headBlockNum;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMillis;
+    private volatile long bodyDelayMillis;
+    private volatile boolean truncateBody;
+
+    StubEOSNode(long headBlockNum) throws IOException {
+        this.headBlockNum = headBlockNum;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/v1/chain/", exchange -> {
+            requests.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            try {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                String body = status != 200
+                        ? "{\"code\":" + status + ",\"message\":\"stub error\"}"
+                        : exchange.getRequestURI().getPath().endsWith("get_info")
+                        ? "{\"head_block_num\":" + headBlockNum + "}"
+                        : "{\"transaction_id\":\"" + headBlockNum + "\"}";
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, bytes.length);
+                OutputStream out = exchange.getResponseBody();
+                out.flush();
+                if (bodyDelayMillis > 0) {
+                    Thread.sleep(bodyDelayMillis);
+                }
+                if (truncateBody) {
+                    // Half the promised bytes, then the connection goes away
+                    out.write(bytes, 0, bytes.length / 2);
+                    out.flush();
+                    return;
+                }
+                out.write(bytes);
+                out.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        this.server.start();
+    }
+
+    String url() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    void respondWith(int status) {
+        this.status = status;
+    }
+
+    void delay(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    void delayBody(long bodyDelayMillis) {
+        this.bodyDelayMillis = bodyDelayMillis;
+    }
+
+    void truncateBody(boolean truncateBody) {
+        this.truncateBody = truncateBody;
+    }
+
+    int requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
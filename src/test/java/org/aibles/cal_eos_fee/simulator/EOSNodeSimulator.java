@@ -0,0 +1,391 @@
+package org.aibles.cal_eos_fee.simulator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Local EOS node for {@code /v1/chain/get_info} and {@code /v1/chain/compute_transaction}, so
+ * performance tests and CI can run the EOS clients without a network.
+ * <p>
+ * The chain advances on a clock: one head block per {@code blockIntervalMillis}, with the last
+ * irreversible block a fixed lag behind; a test clock makes it fully deterministic.
+ * compute_transaction answers from a recording: an exact match on the request body first,
+ * otherwise the recorded responses in turn, otherwise an executed receipt. A recording is made by
+ * {@link #recordFrom} proxying to a real node.
+ * <p>
+ * Per endpoint, latency is drawn from a {@link Latency} distribution, a share of requests fails
+ * with an error status, and bodies can be trickled out in chunks. All randomness comes from one
+ * seeded {@link Random}.
+ */
+public class EOSNodeSimulator implements AutoCloseable {
+
+    public enum Endpoint {
+        GET_INFO("/v1/chain/get_info"),
+        COMPUTE_TRANSACTION("/v1/chain/compute_transaction");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+
+        public String path() {
+            return path;
+        }
+    }
+
+    /**
+     * One recorded exchange, stored as a JSON line.
+     */
+    public record Exchange(String path, String request, int status, String body) {
+    }
+
+    @FunctionalInterface
+    public interface Latency {
+
+        long sampleMillis(Random random);
+
+        static Latency none() {
+            return random -> 0;
+        }
+
+        static Latency fixed(long millis) {
+            return random -> millis;
+        }
+
+        static Latency uniform(long minMillis, long maxMillis) {
+            return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+        }
+
+        /**
+         * Long-tailed, like real node latency: half the requests are faster than {@code medianMillis}.
+         */
+        static Latency logNormal(double medianMillis, double sigma) {
+            return random -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+
+    private static final DateTimeFormatter BLOCK_TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS").withZone(ZoneOffset.UTC);
+    private static final String DEFAULT_RECEIPT = """
+            {"transaction_id":"0f1e2d3c","processed":{"id":"0f1e2d3c","receipt":{"status":"executed",
+             "cpu_usage_us":187,"net_usage_words":16},"elapsed":187,"net_usage":128,"scheduled":false,
+             "action_traces":[],"account_ram_delta":null,"except":null,"error_code":null}}
+            """;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongSupplier clock;
+    private final long startMillis;
+    private final long startBlock;
+    private final long blockIntervalMillis;
+    private final long irreversibleLag;
+    private final Random random;
+
+    private final Map<Endpoint, EndpointBehaviour> behaviours = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicInteger> requests = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicInteger> inFlight = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicInteger> maxInFlight = new EnumMap<>(Endpoint.class);
+    private volatile Replay replay = new Replay(List.of());
+    private volatile Recording recording;
+
+    /**
+     * A simulator on the system clock, starting at block 1, with 500 ms blocks and a 325 block LIB lag.
+     */
+    public EOSNodeSimulator() throws IOException {
+        this(System::currentTimeMillis, 1, 500, 325, 42);
+    }
+
+    public EOSNodeSimulator(LongSupplier clock, long startBlock, long blockIntervalMillis, long irreversibleLag,
+                            long seed) throws IOException {
+        this.clock = clock;
+        this.startMillis = clock.getAsLong();
+        this.startBlock = startBlock;
+        this.blockIntervalMillis = blockIntervalMillis;
+        this.irreversibleLag = irreversibleLag;
+        this.random = new Random(seed);
+        for (Endpoint endpoint : Endpoint.values()) {
+            behaviours.put(endpoint, new EndpointBehaviour());
+            requests.put(endpoint, new AtomicInteger());
+            inFlight.put(endpoint, new AtomicInteger());
+            maxInFlight.put(endpoint, new AtomicInteger());
+        }
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext(Endpoint.GET_INFO.path(), exchange -> handle(exchange, Endpoint.GET_INFO));
+        this.server.createContext(Endpoint.COMPUTE_TRANSACTION.path(), exchange -> handle(exchange, Endpoint.COMPUTE_TRANSACTION));
+        this.server.start();
+    }
+
+    /**
+     * Runs a simulator until killed: {@code -Dsim.replay=<file>} replays a recording,
+     * {@code -Dsim.record-from=<node url> -Dsim.record-to=<file>} records one.
+     */
+    public static void main(String[] args) throws Exception {
+        EOSNodeSimulator simulator = new EOSNodeSimulator();
+        if (System.getProperty("sim.replay") != null) {
+            simulator.replay(Path.of(System.getProperty("sim.replay")));
+        }
+        if (System.getProperty("sim.record-from") != null) {
+            simulator.recordFrom(System.getProperty("sim.record-from"), Path.of(System.getProperty("sim.record-to", "eos-recording.jsonl")));
+        }
+        System.out.println("EOS node simulator listening on " + simulator.url());
+        Thread.currentThread().join();
+    }
+
+    public String url() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public long headBlockNum() {
+        return startBlock + (clock.getAsLong() - startMillis) / blockIntervalMillis;
+    }
+
+    public long lastIrreversibleBlockNum() {
+        return Math.max(1, headBlockNum() - irreversibleLag);
+    }
+
+    public EOSNodeSimulator latency(Endpoint endpoint, Latency latency) {
+        behaviours.get(endpoint).latency = latency;
+        return this;
+    }
+
+    /**
+     * Fails {@code rate} of the requests to {@code endpoint} with {@code status}.
+     */
+    public EOSNodeSimulator errors(Endpoint endpoint, double rate, int status) {
+        EndpointBehaviour behaviour = behaviours.get(endpoint);
+        behaviour.errorRate = rate;
+        behaviour.errorStatus = status;
+        return this;
+    }
+
+    /**
+     * Sends response bodies in chunks of {@code chunkBytes}, pausing {@code chunkDelayMillis} before each.
+     */
+    public EOSNodeSimulator slowBody(Endpoint endpoint, int chunkBytes, long chunkDelayMillis) {
+        EndpointBehaviour behaviour = behaviours.get(endpoint);
+        behaviour.chunkBytes = chunkBytes;
+        behaviour.chunkDelayMillis = chunkDelayMillis;
+        return this;
+    }
+
+    public EOSNodeSimulator replay(Path recordingFile) throws IOException {
+        List<Exchange> exchanges = new ArrayList<>();
+        for (String line : Files.readAllLines(recordingFile, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                exchanges.add(MAPPER.readValue(line, Exchange.class));
+            }
+        }
+        return replay(exchanges);
+    }
+
+    public EOSNodeSimulator replay(List<Exchange> exchanges) {
+        this.replay = new Replay(exchanges);
+        return this;
+    }
+
+    /**
+     * Proxies compute_transaction to {@code nodeUrl} and appends every exchange to {@code recordingFile}.
+     */
+    public EOSNodeSimulator recordFrom(String nodeUrl, Path recordingFile) throws IOException {
+        this.recording = new Recording(nodeUrl, Files.newBufferedWriter(recordingFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        return this;
+    }
+
+    public int requests(Endpoint endpoint) {
+        return requests.get(endpoint).get();
+    }
+
+    /**
+     * Most requests to {@code endpoint} open at once since the simulator started or the last reset.
+     */
+    public int maxInFlight(Endpoint endpoint) {
+        return maxInFlight.get(endpoint).get();
+    }
+
+    public void resetMaxInFlight(Endpoint endpoint) {
+        maxInFlight.get(endpoint).set(inFlight.get(endpoint).get());
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.stop(0);
+        executor.shutdownNow();
+        Recording current = recording;
+        if (current != null) {
+            current.writer.close();
+        }
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        requests.get(endpoint).incrementAndGet();
+        int open = inFlight.get(endpoint).incrementAndGet();
+        maxInFlight.get(endpoint).accumulateAndGet(open, Math::max);
+        EndpointBehaviour behaviour = behaviours.get(endpoint);
+        String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        long latencyMillis;
+        boolean fail;
+        synchronized (random) {
+            latencyMillis = behaviour.latency.sampleMillis(random);
+            fail = behaviour.errorRate > 0 && random.nextDouble() < behaviour.errorRate;
+        }
+
+        try {
+            sleep(latencyMillis);
+            if (fail) {
+                respond(exchange, behaviour, behaviour.errorStatus,
+                        "{\"code\":" + behaviour.errorStatus + ",\"message\":\"simulated failure\"}");
+                return;
+            }
+            if (endpoint == Endpoint.GET_INFO) {
+                respond(exchange, behaviour, 200, getInfo());
+                return;
+            }
+
+            Recording current = recording;
+            Exchange answer = current != null ? current.forward(endpoint, request) : replay.answer(request);
+            if (answer == null) {
+                respond(exchange, behaviour, 200, DEFAULT_RECEIPT);
+            } else {
+                respond(exchange, behaviour, answer.status(), answer.body());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.get(endpoint).decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private String getInfo() {
+        long head = headBlockNum();
+        long lib = lastIrreversibleBlockNum();
+        // Block ids start with the block number, as on chain
+        String libId = String.format("%08x", lib) + String.format("%056x", lib * 0x9E3779B97F4A7C15L & Long.MAX_VALUE);
+        return "{\"server_version\":\"simulator\",\"chain_id\":\"73e4385a2708e6d7048834fbc1079f2fabb17b3c125b146af438971e90716c4d\""
+                + ",\"head_block_num\":" + head
+                + ",\"head_block_time\":\"" + BLOCK_TIME.format(Instant.ofEpochMilli(clock.getAsLong())) + "\""
+                + ",\"last_irreversible_block_num\":" + lib
+                + ",\"last_irreversible_block_id\":\"" + libId + "\"}";
+    }
+
+    private static void respond(HttpExchange exchange, EndpointBehaviour behaviour, int status, String body)
+            throws IOException, InterruptedException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        if (behaviour.chunkBytes <= 0) {
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+            return;
+        }
+
+        // Chunked transfer: headers go out at once, the body trickles
+        exchange.sendResponseHeaders(status, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int offset = 0; offset < bytes.length; offset += behaviour.chunkBytes) {
+                sleep(behaviour.chunkDelayMillis);
+                out.write(bytes, offset, Math.min(behaviour.chunkBytes, bytes.length - offset));
+                out.flush();
+            }
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private static final class EndpointBehaviour {
+        private volatile Latency latency = Latency.none();
+        private volatile double errorRate;
+        private volatile int errorStatus = 503;
+        private volatile int chunkBytes;
+        private volatile long chunkDelayMillis;
+    }
+
+    private static final class Replay {
+
+        private final Map<String, Exchange> byRequest = new HashMap<>();
+        private final List<Exchange> inOrder = new ArrayList<>();
+        private final AtomicInteger next = new AtomicInteger();
+
+        Replay(List<Exchange> exchanges) {
+            for (Exchange exchange : exchanges) {
+                if (Endpoint.COMPUTE_TRANSACTION.path().equals(exchange.path())) {
+                    byRequest.putIfAbsent(exchange.request(), exchange);
+                    inOrder.add(exchange);
+                }
+            }
+        }
+
+        Exchange answer(String request) {
+            Exchange exact = byRequest.get(request);
+            if (exact != null || inOrder.isEmpty()) {
+                return exact;
+            }
+            return inOrder.get(Math.floorMod(next.getAndIncrement(), inOrder.size()));
+        }
+    }
+
+    private static final class Recording {
+
+        private final String nodeUrl;
+        private final BufferedWriter writer;
+        private final HttpClient client = HttpClient.newHttpClient();
+
+        Recording(String nodeUrl, BufferedWriter writer) {
+            this.nodeUrl = nodeUrl.endsWith("/") ? nodeUrl.substring(0, nodeUrl.length() - 1) : nodeUrl;
+            this.writer = writer;
+        }
+
+        Exchange forward(Endpoint endpoint, String request) throws IOException, InterruptedException {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(nodeUrl + endpoint.path()))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(request))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            Exchange exchange = new Exchange(endpoint.path(), request, response.statusCode(), response.body());
+            synchronized (writer) {
+                writer.write(MAPPER.writeValueAsString(exchange));
+                writer.newLine();
+                writer.flush();
+            }
+            return exchange;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.aibles.cal_eos_fee.simulator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aibles.cal_eos_fee.dto.request.ComputeTransactionRequest;
+import org.aibles.cal_eos_fee.dto.request.GetInfoResponse;
+import org.aibles.cal_eos_fee.service.EOSApiService;
+import org.aibles.cal_eos_fee.service.EOSJsonCodec;
+import org.aibles.cal_eos_fee.service.EOSNodePool;
+import org.aibles.cal_eos_fee.service.FeePipelineMetrics;
+import org.aibles.cal_eos_fee.simulator.EOSNodeSimulator.Endpoint;
+import org.aibles.cal_eos_fee.simulator.EOSNodeSimulator.Exchange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EOSNodeSimulatorTest {
+
+    private final EOSJsonCodec jsonCodec = new EOSJsonCodec(false);
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+
+    @Test
+    void chainAdvancesWithTheClock() throws IOException {
+        try (EOSNodeSimulator node = simulator()) {
+            EOSApiService service = service(node);
+
+            GetInfoResponse first = service.getInfo();
+            clock.addAndGet(5_000);
+            GetInfoResponse second = service.getInfo();
+
+            assertThat(first.getHeadBlockNum()).isEqualTo(1_000);
+            assertThat(first.getLastIrreversibleBlockNum()).isEqualTo(675);
+            assertThat(second.getHeadBlockNum()).isEqualTo(1_010);
+            assertThat(second.getLastIrreversibleBlockNum()).isEqualTo(685);
+        }
+    }
+
+    @Test
+    void replaysTheRecordingForAMatchingRequest() throws IOException {
+        ComputeTransactionRequest request = new ComputeTransactionRequest();
+        String recorded = new String(jsonCodec.writeRequest(request), StandardCharsets.UTF_8);
+        try (EOSNodeSimulator node = simulator().replay(List.of(
+                new Exchange(Endpoint.COMPUTE_TRANSACTION.path(), "{\"other\":true}", 200, receipt(111)),
+                new Exchange(Endpoint.COMPUTE_TRANSACTION.path(), recorded, 200, receipt(222))))) {
+
+            long cpu = service(node).computeTransaction(request).getProcessed().getReceipt().getCpuUsageUs();
+
+            assertThat(cpu).isEqualTo(222);
+        }
+    }
+
+    @Test
+    void recordingReplaysTheSameAnswers(@TempDir Path dir) throws IOException {
+        Path recording = dir.resolve("recording.jsonl");
+        ComputeTransactionRequest request = new ComputeTransactionRequest();
+        try (EOSNodeSimulator upstream = simulator().replay(List.of(
+                new Exchange(Endpoint.COMPUTE_TRANSACTION.path(), "", 200, receipt(333))));
+             EOSNodeSimulator recorder = simulator().recordFrom(upstream.url(), recording)) {
+            service(recorder).computeTransaction(request);
+        }
+
+        try (EOSNodeSimulator node = simulator().replay(recording)) {
+            long cpu = service(node).computeTransaction(request).getProcessed().getReceipt().getCpuUsageUs();
+
+            assertThat(cpu).isEqualTo(333);
+        }
+    }
+
+    @Test
+    void injectedErrorsFailOverToTheHealthyNode() throws IOException {
+        try (EOSNodeSimulator failing = simulator().errors(Endpoint.GET_INFO, 1.0, 503);
+             EOSNodeSimulator healthy = simulator()) {
+            EOSApiService service = service(failing, healthy);
+
+            for (int i = 0; i < 5; i++) {
+                assertThat(service.getInfo().getHeadBlockNum()).isEqualTo(1_000);
+            }
+
+            assertThat(failing.requests(Endpoint.GET_INFO)).isLessThanOrEqualTo(3);
+            assertThat(healthy.requests(Endpoint.GET_INFO)).isEqualTo(5);
+        }
+    }
+
+    @Test
+    void slowBodiesAndLatencyStillParse() throws IOException {
+        try (EOSNodeSimulator node = simulator()
+                .latency(Endpoint.COMPUTE_TRANSACTION, EOSNodeSimulator.Latency.uniform(1, 5))
+                .slowBody(Endpoint.COMPUTE_TRANSACTION, 32, 1)) {
+
+            long cpu = service(node).computeTransaction(new ComputeTransactionRequest())
+                    .getProcessed().getReceipt().getCpuUsageUs();
+
+            assertThat(cpu).isEqualTo(187);
+        }
+    }
+
+    @Test
+    void tracksTheMostRequestsInFlight() throws Exception {
+        try (EOSNodeSimulator node = simulator()
+                .latency(Endpoint.COMPUTE_TRANSACTION, EOSNodeSimulator.Latency.fixed(200));
+             ExecutorService callers = Executors.newFixedThreadPool(4)) {
+            EOSApiService service = service(node);
+
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                calls.add(callers.submit(() -> service.computeTransaction(new ComputeTransactionRequest())));
+            }
+            for (Future<?> call : calls) {
+                call.get(5, TimeUnit.SECONDS);
+            }
+
+            assertThat(node.maxInFlight(Endpoint.COMPUTE_TRANSACTION)).isEqualTo(4);
+            node.resetMaxInFlight(Endpoint.COMPUTE_TRANSACTION);
+            assertThat(node.maxInFlight(Endpoint.COMPUTE_TRANSACTION)).isZero();
+        }
+    }
+
+    private EOSNodeSimulator simulator() throws IOException {
+        return new EOSNodeSimulator(clock::get, 1_000, 500, 325, 7);
+    }
+
+    private EOSApiService service(EOSNodeSimulator... nodes) {
+        List<String> urls = Arrays.stream(nodes).map(EOSNodeSimulator::url).toList();
+        EOSNodePool pool = new EOSNodePool(new SimpleMeterRegistry(), urls, 0.2, 3, 0.5, 0.95, 20);
+        return new EOSApiService(pool, jsonCodec, new FeePipelineMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static String receipt(long cpuUsageUs) {
+        return "{\"transaction_id\":\"ab\",\"processed\":{\"id\":\"ab\",\"receipt\":{\"status\":\"executed\","
+                + "\"cpu_usage_us\":" + cpuUsageUs + ",\"net_usage_words\":16},\"elapsed\":" + cpuUsageUs + "}}";
+    }
+}
@@ -0,0 +1,295 @@
+package org.aibles.cal_eos_fee.util;
+
+import org.aibles.cal_eos_fee.dto.request.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EOSEncoderTest {
+
+    private static final String ACCOUNT_CHARS = "abcdefghijklmnopqrstuvwxyz12345.";
+
+    @Test
+    void encodesKnownTransfer() {
+        TransferData transferData = transfer("alice", "bob", 1.5, "hi");
+
+        assertThat(EOSEncoder.encodeTransferData(transferData)).isEqualTo(
+                "0000000000855c34" + "0000000000000e3d" + "983a000000000000" + "04454f5300000000" + "026869");
+    }
+
+    @Test
+    void transferDataMatchesLegacyEncoder() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            TransferData transferData = randomTransfer(random);
+
+            assertThat(EOSEncoder.encodeTransferData(transferData))
+                    .isEqualTo(LegacyEncoder.encodeTransferData(transferData));
+        }
+    }
+
+    @Test
+    void transactionMatchesLegacyEncoder() {
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            Transaction transaction = randomTransaction(random);
+
+            assertThat(EOSEncoder.encodeTransaction(transaction))
+                    .isEqualTo(LegacyEncoder.encodeTransaction(transaction));
+        }
+    }
+
+    @Test
+    void writesIntoCallerSuppliedBufferAndGrows() {
+        TransferData transferData = transfer("eosio.token", "someone1", 0.0001, "x".repeat(300));
+        ByteBuffer small = ByteBuffer.allocate(16);
+
+        EOSByteWriter writer = new EOSByteWriter(small);
+        EOSEncoder.writeTransferData(writer, transferData);
+
+        assertThat(writer.buffer().capacity()).isGreaterThan(16);
+        assertThat(writer.toHexString()).isEqualTo(LegacyEncoder.encodeTransferData(transferData));
+    }
+
+    @Test
+    void threadLocalWriterIsResetBetweenUses() {
+        String first = EOSEncoder.encodeTransferData(transfer("alice", "bob", 1.0, "a much longer memo than the next one"));
+        String second = EOSEncoder.encodeTransferData(transfer("alice", "bob", 1.0, ""));
+
+        assertThat(second).hasSizeLessThan(first.length());
+        assertThat(second).isEqualTo(LegacyEncoder.encodeTransferData(transfer("alice", "bob", 1.0, "")));
+    }
+
+    @Test
+    void hexCodecRoundTripsAndRejectsInvalidInput() {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        String hex = HexCodec.encode(bytes);
+
+        assertThat(HexCodec.decode(hex)).isEqualTo(bytes);
+        assertThat(HexCodec.decode(hex.toUpperCase())).isEqualTo(bytes);
+        assertThat(HexCodec.decode("0x0a 0b")).containsExactly(0x0a, 0x0b);
+        assertThatThrownBy(() -> HexCodec.decode("abc")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HexCodec.decode("zz")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TransferData transfer(String from, String to, double quantity, String memo) {
+        TransferData transferData = new TransferData();
+        transferData.setFrom(from);
+        transferData.setTo(to);
+        transferData.setQuantity(quantity);
+        transferData.setMemo(memo);
+        return transferData;
+    }
+
+    private static TransferData randomTransfer(Random random) {
+        double quantity = random.nextInt(1_000_000_000) / 10000.0 + random.nextInt(1000);
+        return transfer(randomAccount(random), randomAccount(random), quantity, randomMemo(random));
+    }
+
+    private static Transaction randomTransaction(Random random) {
+        Transaction transaction = new Transaction();
+        transaction.setExpiration(1_700_000_000L + random.nextInt(1_000_000));
+        transaction.setRefBlockNum(random.nextInt(0x10000));
+        transaction.setRefBlockPrefix(random.nextLong() & 0xFFFFFFFFL);
+        transaction.setMaxNetUsageWords(random.nextBoolean() ? 0 : random.nextInt(100_000));
+        transaction.setMaxCpuUsageMs(random.nextBoolean() ? 0 : random.nextInt(300));
+        transaction.setDelaySec(random.nextBoolean() ? 0 : random.nextInt(1000));
+
+        List<Action> actions = new ArrayList<>();
+        int actionCount = 1 + random.nextInt(4);
+        for (int i = 0; i < actionCount; i++) {
+            actions.add(randomAction(random));
+        }
+        transaction.setActions(actions);
+
+        if (random.nextBoolean()) {
+            transaction.setContextFreeActions(List.of(randomAction(random)));
+        }
+        if (random.nextBoolean()) {
+            TransactionExtension extension = new TransactionExtension();
+            extension.setType(random.nextInt(3));
+            extension.setData(HexCodec.encode(new byte[random.nextInt(40)]));
+            transaction.setTransactionExtensions(List.of(extension));
+        }
+        return transaction;
+    }
+
+    private static Action randomAction(Random random) {
+        PermissionLevel permissionLevel = new PermissionLevel();
+        permissionLevel.setActor(randomAccount(random));
+        permissionLevel.setPermission("active");
+
+        Action action = new Action();
+        action.setAccount("eosio.token");
+        action.setName("transfer");
+        action.setAuthorization(List.of(permissionLevel));
+        action.setData(LegacyEncoder.encodeTransferData(randomTransfer(random)));
+        return action;
+    }
+
+    private static String randomAccount(Random random) {
+        StringBuilder name = new StringBuilder();
+        int length = 1 + random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            name.append(ACCOUNT_CHARS.charAt(random.nextInt(ACCOUNT_CHARS.length())));
+        }
+        return name.toString();
+    }
+
+    private static String randomMemo(Random random) {
+        return switch (random.nextInt(5)) {
+            case 0 -> null;
+            case 1 -> "";
+            case 2 -> "memo " + random.nextInt(1000);
+            case 3 -> "x".repeat(100 + random.nextInt(400));
+            default -> "café € " + random.nextInt(1000);
+        };
+    }
+
+    /**
+     * The encoder as it was before the buffer-based API, kept as the reference for byte equality.
+     */
+    private static final class LegacyEncoder {
+
+        static String encodeTransferData(TransferData transferData) {
+            try {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                baos.write(encodeAccountName(transferData.getFrom()));
+                baos.write(encodeAccountName(transferData.getTo()));
+                baos.write(encodeAsset(transferData.getQuantity()));
+                baos.write(encodeMemo(transferData.getMemo()));
+                return toHexString(baos.toByteArray());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        static String encodeTransaction(Transaction transaction) {
+            try {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                baos.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt((int) transaction.getExpiration()).array());
+                baos.write(ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN).putShort((short) transaction.getRefBlockNum()).array());
+                baos.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt((int) transaction.getRefBlockPrefix()).array());
+                writeVarint(baos, transaction.getMaxNetUsageWords());
+                writeVarint(baos, transaction.getMaxCpuUsageMs());
+                writeVarint(baos, transaction.getDelaySec());
+                writeActions(baos, transaction.getContextFreeActions());
+                writeActions(baos, transaction.getActions());
+                if (transaction.getTransactionExtensions() != null) {
+                    writeVarint(baos, transaction.getTransactionExtensions().size());
+                    for (TransactionExtension extension : transaction.getTransactionExtensions()) {
+                        writeVarint(baos, extension.getType());
+                        byte[] dataBytes = hexStringToBytes(extension.getData());
+                        writeVarint(baos, dataBytes.length);
+                        baos.write(dataBytes);
+                    }
+                } else {
+                    writeVarint(baos, 0);
+                }
+                return toHexString(baos.toByteArray());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private static void writeActions(ByteArrayOutputStream baos, List<Action> actions) throws IOException {
+            if (actions == null) {
+                writeVarint(baos, 0);
+                return;
+            }
+            writeVarint(baos, actions.size());
+            for (Action action : actions) {
+                baos.write(encodeAccountName(action.getAccount()));
+                baos.write(encodeAccountName(action.getName()));
+                writeVarint(baos, action.getAuthorization().size());
+                for (PermissionLevel permissionLevel : action.getAuthorization()) {
+                    baos.write(encodeAccountName(permissionLevel.getActor()));
+                    baos.write(encodeAccountName(permissionLevel.getPermission()));
+                }
+                byte[] dataBytes = hexStringToBytes(action.getData());
+                writeVarint(baos, dataBytes.length);
+                baos.write(dataBytes);
+            }
+        }
+
+        private static String toHexString(byte[] bytes) {
+            StringBuilder sb = new StringBuilder();
+            for (byte b : bytes) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        }
+
+        private static byte[] encodeAccountName(String accountName) {
+            long encoded = 0;
+            for (int i = 0; i < accountName.length() && i < 12; i++) {
+                char c = accountName.charAt(i);
+                long charValue;
+                if (c >= 'a' && c <= 'z') {
+                    charValue = c - 'a' + 6;
+                } else if (c >= '1' && c <= '5') {
+                    charValue = c - '1' + 1;
+                } else {
+                    charValue = 0;
+                }
+                encoded |= (charValue & 0x1F) << (64 - 5 * (i + 1));
+            }
+            return ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(encoded).array();
+        }
+
+        private static byte[] encodeAsset(Double quantityDouble) throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            long quantityInt = BigDecimal.valueOf(quantityDouble).multiply(BigDecimal.valueOf(10000)).longValue();
+            baos.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(quantityInt).array());
+            baos.write(0x04);
+            byte[] symbolBytes = new byte[7];
+            byte[] symbolName = "EOS".getBytes(StandardCharsets.UTF_8);
+            System.arraycopy(symbolName, 0, symbolBytes, 0, symbolName.length);
+            baos.write(symbolBytes);
+            return baos.toByteArray();
+        }
+
+        private static byte[] encodeMemo(String memo) throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] memoBytes = (memo == null ? "" : memo).getBytes(StandardCharsets.UTF_8);
+            writeVarint(baos, memoBytes.length);
+            baos.write(memoBytes);
+            return baos.toByteArray();
+        }
+
+        private static void writeVarint(ByteArrayOutputStream baos, int value) {
+            while (value >= 0x80) {
+                baos.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            baos.write(value & 0x7F);
+        }
+
+        private static byte[] hexStringToBytes(String hex) {
+            if (hex == null || hex.isEmpty()) {
+                return new byte[0];
+            }
+            hex = hex.replaceAll("\\s", "").replaceAll("^0x", "");
+            byte[] bytes = new byte[hex.length() / 2];
+            for (int i = 0; i < hex.length(); i += 2) {
+                bytes[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4) + Character.digit(hex.charAt(i + 1), 16));
+            }
+            return bytes;
+        }
+    }
+}
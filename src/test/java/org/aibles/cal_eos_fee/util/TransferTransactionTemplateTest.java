@@ -0,0 +1,92 @@
+package org.aibles.cal_eos_fee.util;
+
+import org.aibles.cal_eos_fee.dto.request.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransferTransactionTemplateTest {
+
+    private final TransferTransactionTemplate template =
+            TransferTransactionTemplate.of("eosio.token", "transfer", "active");
+
+    @Test
+    void matchesFullEncodingAcrossMemoLengths() {
+        TransactionHeader header = header(1_735_689_720L, 0xBEEF, 0xCAFEBABEL);
+
+        // 95 bytes is where the data length varint grows, 128 where the memo length varint grows
+        for (int memoLength : new int[]{0, 1, 94, 95, 96, 127, 128, 129, 300, 20_000}) {
+            TransferData transferData = transfer("alice", "bob.12345", 12.3456, "m".repeat(memoLength));
+
+            assertThat(template.encode(header, transferData)).isEqualTo(encodeFully(header, transferData));
+        }
+    }
+
+    @Test
+    void patchesEveryVariableField() {
+        TransactionHeader first = header(1_700_000_000L, 1, 2);
+        TransactionHeader second = header(1_800_000_000L, 0xFFFF, 0xFFFFFFFFL);
+
+        for (TransferData transferData : List.of(
+                transfer("a", "b", 0.0001, null),
+                transfer("zzzzzzzzzzzz", "111111111111", 999999999.9999, "café ☕ 🚀"),
+                transfer("eosio", "eosio.token", 1.0, "\uD83D"))) {
+            assertThat(template.encode(first, transferData)).isEqualTo(encodeFully(first, transferData));
+            assertThat(template.encode(second, transferData)).isEqualTo(encodeFully(second, transferData));
+        }
+    }
+
+    @Test
+    void sharesTemplatePerActionSkeleton() {
+        assertThat(TransferTransactionTemplate.of("eosio.token", "transfer", "active")).isSameAs(template);
+        assertThat(TransferTransactionTemplate.of("eosio.token", "transfer", "owner")).isNotSameAs(template);
+    }
+
+    @Test
+    void rejectsHeadersWithLimits() {
+        TransactionHeader header = header(1_700_000_000L, 1, 2);
+        header.setDelaySec(10);
+
+        assertThatThrownBy(() -> template.encode(header, transfer("alice", "bob", 1.0, "")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encodeFully(TransactionHeader header, TransferData transferData) {
+        PermissionLevel permissionLevel = new PermissionLevel();
+        permissionLevel.setActor(transferData.getFrom());
+        permissionLevel.setPermission("active");
+
+        Action action = new Action();
+        action.setAccount("eosio.token");
+        action.setName("transfer");
+        action.setAuthorization(List.of(permissionLevel));
+        action.setData(EOSEncoder.encodeTransferData(transferData));
+
+        Transaction transaction = new Transaction();
+        transaction.setExpiration(header.getExpiration());
+        transaction.setRefBlockNum(header.getRefBlockNum());
+        transaction.setRefBlockPrefix(header.getRefBlockPrefix());
+        transaction.setActions(List.of(action));
+        return EOSEncoder.encodeTransaction(transaction);
+    }
+
+    private static TransactionHeader header(long expiration, int refBlockNum, long refBlockPrefix) {
+        TransactionHeader header = new TransactionHeader();
+        header.setExpiration(expiration);
+        header.setRefBlockNum(refBlockNum);
+        header.setRefBlockPrefix(refBlockPrefix);
+        return header;
+    }
+
+    private static TransferData transfer(String from, String to, double quantity, String memo) {
+        TransferData transferData = new TransferData();
+        transferData.setFrom(from);
+        transferData.setTo(to);
+        transferData.setQuantity(quantity);
+        transferData.setMemo(memo);
+        return transferData;
+    }
+}
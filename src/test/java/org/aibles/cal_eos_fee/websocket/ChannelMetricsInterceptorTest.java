@@ -0,0 +1,90 @@
+package org.aibles.cal_eos_fee.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChannelMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @Test
+    void countsTasksAsQueuedUntilTheyRun() {
+        ExecutorSubscribableChannel channel = channel(tasks::add);
+
+        channel.send(MessageBuilder.withPayload("ping").build());
+        assertThat(queued()).isEqualTo(2.0);
+
+        tasks.forEach(Runnable::run);
+        assertThat(queued()).isZero();
+    }
+
+    @Test
+    void rejectedTasksRunOnTheSenderAndLeaveNothingQueued() {
+        ExecutorSubscribableChannel channel = channel(task -> {
+            throw new RejectedExecutionException("full");
+        });
+
+        assertThat(channel.send(MessageBuilder.withPayload("ping").build())).isTrue();
+
+        assertThat(queued()).isZero();
+    }
+
+    @Test
+    void sendFailedByALaterInterceptorIsTakenBackOffTheQueue() {
+        ExecutorSubscribableChannel channel = channel(tasks::add);
+        channel.addInterceptor(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                throw new IllegalStateException("rejected by interceptor");
+            }
+        });
+
+        assertThatThrownBy(() -> channel.send(MessageBuilder.withPayload("ping").build()))
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(tasks).isEmpty();
+        assertThat(queued()).isZero();
+    }
+
+    @Test
+    void sendDroppedByALaterInterceptorIsTakenBackOffTheQueue() {
+        ExecutorSubscribableChannel channel = channel(tasks::add);
+        channel.addInterceptor(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                return null;
+            }
+        });
+
+        assertThat(channel.send(MessageBuilder.withPayload("ping").build())).isFalse();
+
+        assertThat(tasks).isEmpty();
+        assertThat(queued()).isZero();
+    }
+
+    private ExecutorSubscribableChannel channel(Executor executor) {
+        ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel(executor);
+        channel.addInterceptor(new ChannelMetricsInterceptor(meterRegistry, "inbound"));
+        channel.subscribe(message -> { });
+        channel.subscribe(message -> { });
+        return channel;
+    }
+
+    private double queued() {
+        return meterRegistry.get("websocket.channel.queued").tag("channel", "inbound").gauge().value();
+    }
+}
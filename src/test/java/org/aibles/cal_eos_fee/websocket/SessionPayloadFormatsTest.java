@@ -0,0 +1,115 @@
+package org.aibles.cal_eos_fee.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.aibles.cal_eos_fee.dto.websocket.MessageType;
+import org.aibles.cal_eos_fee.dto.websocket.WebSocketMessage;
+import org.aibles.cal_eos_fee.dto.websocket.WebSocketResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.DefaultContentTypeResolver;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionPayloadFormatsTest {
+
+    private static final Principal USER = () -> "user-1";
+
+    private final SessionPayloadFormats formats = new SessionPayloadFormats();
+    private final CompositeMessageConverter converter = brokerConverter(formats);
+
+    @Test
+    void sessionsWithoutNegotiationStayOnJson() {
+        Message<?> inbound = inbound(SimpMessageType.MESSAGE, "{\"type\":\"PING\",\"requestId\":\"r1\"}"
+                .getBytes(StandardCharsets.UTF_8), null);
+        formats.preSend(inbound, null);
+
+        WebSocketMessage message = (WebSocketMessage) converter.fromMessage(inbound, WebSocketMessage.class);
+        Message<?> reply = converter.toMessage(WebSocketResponse.success(MessageType.PING, "pong", "r1"), replyHeaders());
+
+        assertThat(message.getType()).isEqualTo(MessageType.PING);
+        assertThat(reply.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+        assertThat(new String((byte[]) reply.getPayload(), StandardCharsets.UTF_8)).contains("\"requestId\":\"r1\"");
+        assertThat(formats.formatForUser(USER.getName())).isEqualTo(PayloadFormat.JSON);
+    }
+
+    @Test
+    void cborFrameIsReadAndRepliedToInCbor() throws Exception {
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        byte[] payload = cbor.writeValueAsBytes(Map.of("type", "CALCULATE_FEE", "requestId", "r2",
+                "data", Map.of("from", "alice", "to", "bob", "quantity", 1.5)));
+        Message<?> inbound = inbound(SimpMessageType.MESSAGE, payload, "application/cbor");
+        formats.preSend(inbound, null);
+
+        WebSocketMessage message = (WebSocketMessage) converter.fromMessage(inbound, WebSocketMessage.class);
+        Message<?> reply = converter.toMessage(WebSocketResponse.success(MessageType.CALCULATE_FEE, null, "r2"), replyHeaders());
+
+        assertThat(message.getRequestId()).isEqualTo("r2");
+        assertThat(message.getData()).isInstanceOf(Map.class);
+        assertThat(reply.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo(PayloadFormat.CBOR.mimeType());
+        assertThat(cbor.readTree((byte[]) reply.getPayload()).get("requestId").asText()).isEqualTo("r2");
+        assertThat(formats.formatForUser(USER.getName())).isEqualTo(PayloadFormat.CBOR);
+    }
+
+    @Test
+    void acceptHeaderOnConnectPicksTheFormatUntilDisconnect() {
+        SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        connect.setSessionId("s1");
+        connect.setUser(USER);
+        connect.setNativeHeader("accept", "application/x-msgpack, application/json");
+        formats.preSend(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()), null);
+
+        assertThat(formats.formatForUser(USER.getName())).isEqualTo(PayloadFormat.MSGPACK);
+
+        formats.preSend(inbound(SimpMessageType.DISCONNECT, new byte[0], null), null);
+
+        assertThat(formats.formatForUser(USER.getName())).isEqualTo(PayloadFormat.JSON);
+    }
+
+    private static Message<?> inbound(SimpMessageType type, byte[] payload, String contentType) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId("s1");
+        accessor.setUser(USER);
+        if (contentType != null) {
+            accessor.setContentType(MimeTypeUtils.parseMimeType(contentType));
+        }
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    // Headers as SendToMethodReturnValueHandler builds them for an @SendToUser reply
+    private static MessageHeaders replyHeaders() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId("s1");
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+
+    // Same order as the broker: ours first, then Spring's defaults
+    private static CompositeMessageConverter brokerConverter(SessionPayloadFormats formats) {
+        List<MessageConverter> converters = new ArrayList<>(formats.messageConverters());
+        converters.add(new StringMessageConverter());
+        converters.add(new ByteArrayMessageConverter());
+        DefaultContentTypeResolver resolver = new DefaultContentTypeResolver();
+        resolver.setDefaultMimeType(MimeTypeUtils.APPLICATION_JSON);
+        MappingJackson2MessageConverter json = new MappingJackson2MessageConverter();
+        json.setContentTypeResolver(resolver);
+        converters.add(json);
+        return new CompositeMessageConverter(converters);
+    }
+}